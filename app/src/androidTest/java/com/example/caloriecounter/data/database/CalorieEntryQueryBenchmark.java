@@ -0,0 +1,139 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.caloriecounter.utils.DateUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the version 1 layout (string date, no index) with the version 2
+ * epochDay index on a synthetic six-year history. Results are written to logcat
+ * under the "QueryBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CalorieEntryQueryBenchmark {
+    private static final String TAG = "QueryBenchmark";
+    private static final int YEARS = 6;
+    private static final int ENTRIES_PER_DAY = 10;
+    private static final int LOOKUPS = 200;
+
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+    private int firstDay;
+    private int dayCount;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        dao = db.calorieEntryDao();
+
+        dayCount = YEARS * 365;
+        firstDay = DateUtils.getTodayEpochDay() - dayCount;
+        Random random = new Random(42);
+        db.runInTransaction(() -> {
+            for (int d = 0; d < dayCount; d++) {
+                String date = DateUtils.getDateWithOffset(d - dayCount);
+                for (int i = 0; i < ENTRIES_PER_DAY; i++) {
+                    dao.insert(new CalorieEntryEntity(date, "Food " + random.nextInt(200),
+                            1 + random.nextInt(3), 50 + random.nextInt(400), i));
+                }
+            }
+        });
+
+        // Version 1 shape: same rows, no epochDay column and no index
+        SupportSQLiteDatabase raw = db.getOpenHelper().getWritableDatabase();
+        raw.execSQL("CREATE TABLE v1_entries AS "
+                + "SELECT e.id, e.date, f.name, e.quantity, e.caloriesPerUnit, e.timestamp "
+                + "FROM calorie_entries e JOIN foods f ON f.id = e.foodId");
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void dayLookups_v1VersusV2() {
+        SupportSQLiteDatabase raw = db.getOpenHelper().getReadableDatabase();
+        Random random = new Random(7);
+        int[] days = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            days[i] = firstDay + random.nextInt(dayCount);
+        }
+        List<String> dates = new ArrayList<>();
+        for (int day : days) {
+            dates.add(dao.getEntriesForDateSync(day).get(0).getDate());
+        }
+
+        long start = System.nanoTime();
+        double v1Sum = 0;
+        for (String date : dates) {
+            try (Cursor c = raw.query("SELECT * FROM v1_entries WHERE date = ? ORDER BY timestamp ASC",
+                    new Object[]{date})) {
+                while (c.moveToNext()) {
+                    v1Sum += c.getDouble(3) * c.getDouble(4);
+                }
+            }
+        }
+        long v1Nanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        double v2Sum = 0;
+        for (int day : days) {
+            for (CalorieEntryEntity e : dao.getEntriesForDateSync(day)) {
+                v2Sum += e.getTotalCalories();
+            }
+        }
+        long v2Nanos = System.nanoTime() - start;
+
+        assertEquals(v1Sum, v2Sum, 0.001);
+        report("getEntriesForDateSync", v1Nanos, v2Nanos);
+    }
+
+    @Test
+    public void distinctDates_v1VersusV2() {
+        SupportSQLiteDatabase raw = db.getOpenHelper().getReadableDatabase();
+
+        long start = System.nanoTime();
+        int v1Count = 0;
+        try (Cursor c = raw.query("SELECT DISTINCT date FROM v1_entries ORDER BY date DESC")) {
+            while (c.moveToNext()) v1Count++;
+        }
+        long v1Nanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int v2Count = 0;
+        try (Cursor c = raw.query("SELECT date FROM calorie_entries GROUP BY epochDay ORDER BY epochDay DESC")) {
+            while (c.moveToNext()) v2Count++;
+        }
+        long v2Nanos = System.nanoTime() - start;
+
+        assertEquals(v1Count, v2Count);
+        report("getAllDatesWithEntries", v1Nanos, v2Nanos);
+    }
+
+    private void report(String query, long v1Nanos, long v2Nanos) {
+        Log.i(TAG, String.format(Locale.US, "%s over %d rows: v1 %.2f ms, v2 %.2f ms (%.1fx)",
+                query, dayCount * ENTRIES_PER_DAY, v1Nanos / 1e6, v2Nanos / 1e6,
+                (double) v1Nanos / Math.max(1, v2Nanos)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class DailyTotalsTriggerTest {
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+    private DailyTotalDao totalsDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        dao = db.calorieEntryDao();
+        totalsDao = db.dailyTotalDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void insertUpdateDelete_keepSummaryInSync() {
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 2, 95, 1));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Coffee", 1, 5, 2));
+        dao.insert(new CalorieEntryEntity("2024-03-06", "Bread", 3, 80, 3));
+
+        DailyTotalEntity day = totalsDao.getDay(19787);
+        assertEquals(2, day.getEntryCount());
+        assertEquals(195, day.getTotalCalories(), 0.0001);
+
+        // Moving an entry to another day updates both summary rows
+        List<CalorieEntryEntity> entries = dao.getEntriesForDateSync(19787);
+        CalorieEntryEntity coffee = entries.get(1);
+        coffee.setDate("2024-03-06");
+        coffee.setEpochDay(19788);
+        dao.update(coffee);
+        assertEquals(190, dao.getTotalCaloriesForDate(19787), 0.0001);
+        assertEquals(245, dao.getTotalCaloriesForDate(19788), 0.0001);
+
+        long revision = totalsDao.getDay(19787).getRevision();
+        dao.delete(entries.get(0));
+        DailyTotalEntity emptied = totalsDao.getDay(19787);
+        assertEquals(0, emptied.getEntryCount());
+        assertTrue(emptied.getRevision() > revision);
+
+        assertTrue(totalsDao.verify());
+    }
+
+    @Test
+    public void verifyOrRebuild_repairsDrift() {
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 2, 95, 1));
+        db.getOpenHelper().getWritableDatabase()
+                .execSQL("UPDATE daily_totals SET totalCalories = 1");
+        assertFalse(totalsDao.verify());
+
+        assertTrue(totalsDao.verifyOrRebuild());
+        assertEquals(190, dao.getTotalCaloriesForDate(19787), 0.0001);
+        assertTrue(totalsDao.verify());
+    }
+}
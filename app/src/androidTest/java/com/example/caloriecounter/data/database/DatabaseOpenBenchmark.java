@@ -0,0 +1,143 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.caloriecounter.data.repository.AppExecutors;
+import com.example.caloriecounter.utils.DateUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares Room defaults, which open the database lazily on the first query,
+ * with the startup profile (WAL, app executors, warm-up started from
+ * Application.onCreate). Each profile is measured two ways: opening and the
+ * first query timed separately, and the time from build() to the first
+ * result when the same startup gap separates them on both paths, with the
+ * share of it the first query blocked. Each round reopens the same file, so
+ * this measures connection setup and schema validation rather than a cold
+ * page cache. Results go to logcat under the "OpenBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseOpenBenchmark {
+    private static final String TAG = "OpenBenchmark";
+    private static final String DB_NAME = "open_benchmark_db";
+    private static final int DAYS = 2 * 365;
+    private static final int ENTRIES_PER_DAY = 10;
+    private static final int ROUNDS = 10;
+    // Rough time between Application.onCreate and the first fragment's query
+    private static final long STARTUP_GAP_MS = 150;
+
+    private Context context;
+    private int today;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        today = DateUtils.getTodayEpochDay();
+
+        AppDatabase db = builder(false).build();
+        CalorieEntryDao dao = db.calorieEntryDao();
+        Random random = new Random(42);
+        db.runInTransaction(() -> {
+            for (int d = -DAYS + 1; d <= 0; d++) {
+                String date = DateUtils.getDateWithOffset(d);
+                for (int i = 0; i < ENTRIES_PER_DAY; i++) {
+                    dao.insert(new CalorieEntryEntity(date, "Food " + random.nextInt(200),
+                            1 + random.nextInt(3), 50 + random.nextInt(400), i));
+                }
+            }
+        });
+        db.close();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void openAndFirstQuery_separately() {
+        for (boolean profile : new boolean[]{false, true}) {
+            long openNanos = 0;
+            long queryNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                AppDatabase db = builder(profile).build();
+                long start = System.nanoTime();
+                db.getOpenHelper().getWritableDatabase();
+                openNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                int count = db.calorieEntryDao().getEntriesForDateSync(today).size();
+                queryNanos += System.nanoTime() - start;
+                db.close();
+                assertEquals(ENTRIES_PER_DAY, count);
+            }
+            Log.i(TAG, String.format(Locale.US, "%s, mean of %d opens: open %.2f ms, first query %.2f ms",
+                    name(profile), ROUNDS, openNanos / 1e6 / ROUNDS, queryNanos / 1e6 / ROUNDS));
+        }
+    }
+
+    @Test
+    public void buildToFirstResult_afterStartupGap() throws Exception {
+        for (boolean profile : new boolean[]{false, true}) {
+            long totalNanos = 0;
+            long blockedNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                AppDatabase db = builder(profile).build();
+                Future<?> warmUp = profile
+                        ? AppExecutors.getInstance().roomQuery().submit(() -> db.getOpenHelper().getWritableDatabase())
+                        : null;
+                SystemClock.sleep(STARTUP_GAP_MS);
+                long queryStart = System.nanoTime();
+                int count = db.calorieEntryDao().getEntriesForDateSync(today).size();
+                long end = System.nanoTime();
+                totalNanos += end - start;
+                blockedNanos += end - queryStart;
+                if (warmUp != null) {
+                    warmUp.get();
+                }
+                db.close();
+                assertEquals(ENTRIES_PER_DAY, count);
+            }
+            Log.i(TAG, String.format(Locale.US,
+                    "%s over %d rows, %d ms gap, mean of %d rounds: build to first result %.2f ms, "
+                            + "first query blocked %.2f ms",
+                    name(profile), DAYS * ENTRIES_PER_DAY, STARTUP_GAP_MS, ROUNDS,
+                    totalNanos / 1e6 / ROUNDS, blockedNanos / 1e6 / ROUNDS));
+        }
+    }
+
+    private static String name(boolean profile) {
+        return profile ? "warmed profile" : "lazy default";
+    }
+
+    private RoomDatabase.Builder<AppDatabase> builder(boolean profile) {
+        RoomDatabase.Builder<AppDatabase> builder = Room.databaseBuilder(context, AppDatabase.class, DB_NAME);
+        if (profile) {
+            builder = AppDatabase.applyOpenProfile(builder, AppExecutors.getInstance());
+        }
+        return builder
+                .addMigrations(AppDatabase.MIGRATION_1_2, AppDatabase.MIGRATION_2_3,
+                        AppDatabase.MIGRATION_3_4, AppDatabase.MIGRATION_4_5, AppDatabase.MIGRATION_5_6,
+                        AppDatabase.MIGRATION_6_7, AppDatabase.MIGRATION_7_8,
+                        AppDatabase.MIGRATION_8_9)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class FoodCatalogTest {
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+    private FoodDao foodDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        dao = db.calorieEntryDao();
+        foodDao = db.foodDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void entries_buildCatalog() {
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 2, 95, 1));
+        dao.insert(new CalorieEntryEntity("2024-03-06", " apple ", 1, 100, 2));
+        dao.insert(new CalorieEntryEntity("2024-03-06", "Apricot", 1, 17, 3));
+
+        FoodEntity apple = dao.getFood("apple");
+        assertEquals(2, apple.getUseCount());
+        assertEquals(100, apple.getLastCaloriesPerUnit(), 0.0001);
+        assertEquals(2, apple.getLastUsed());
+        assertEquals(2, foodDao.count());
+
+        // Editing is not a use; deleting history uncounts it but keeps the food
+        CalorieEntryEntity apricot = dao.getEntriesForDateSync(19788).get(1);
+        dao.updateById(apricot.getId(), "Apricot", 1, 20);
+        assertEquals(1, dao.getFood("apricot").getUseCount());
+        assertEquals(20, dao.getFood("apricot").getLastCaloriesPerUnit(), 0.0001);
+        dao.deleteById(apricot.getId());
+        assertEquals(0, dao.getFood("apricot").getUseCount());
+        assertEquals(2, foodDao.count());
+        assertNull(dao.getFood("banana"));
+    }
+
+    @Test
+    public void relabel_movesTheUse() {
+        long first = dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 1));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 90, 2));
+
+        dao.updateById(first, "Pear", 1, 60);
+        FoodEntity apple = dao.getFood("apple");
+        assertEquals(1, apple.getUseCount());
+        assertEquals(90, apple.getLastCaloriesPerUnit(), 0.0001);
+        assertEquals(1, dao.getFood("pear").getUseCount());
+    }
+
+    @Test
+    public void searchByPrefix_ordersByUse() {
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apricot", 1, 17, 1));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 2));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 3));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Banana", 1, 105, 4));
+
+        List<FoodEntity> matches = search("AP", 10);
+        assertEquals(2, matches.size());
+        assertEquals("Apple", matches.get(0).getName());
+        assertEquals("Apricot", matches.get(1).getName());
+        assertTrue(search("apz", 10).isEmpty());
+
+        // A food with no entries left is no longer suggested
+        dao.deleteById(dao.getEntriesForDateSync(19787).get(0).getId());
+        matches = search("ap", 10);
+        assertEquals(1, matches.size());
+        assertEquals("Apple", matches.get(0).getName());
+    }
+
+    @Test
+    public void names_readBackAsFirstTyped() {
+        long first = dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 2, 95, 1));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "APPLE ", 1, 90, 2));
+
+        List<CalorieEntryEntity> entries = dao.getEntriesForDateSync(19787);
+        assertEquals(first, entries.get(0).getId());
+        assertEquals("Apple", entries.get(1).getName());
+        assertEquals(entries.get(0).getFoodId(), entries.get(1).getFoodId());
+
+        dao.updateById(first, "Pear", 2, 60);
+        assertEquals("Pear", dao.getEntriesForDateSync(19787).get(0).getName());
+    }
+
+    @Test
+    public void recomputeStats_matchesInserts() {
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 2, 95, 1));
+        dao.insert(new CalorieEntryEntity("2024-03-06", "APPLE", 1, 90, 2));
+        db.getOpenHelper().getWritableDatabase()
+                .execSQL("UPDATE foods SET useCount = 0, lastCaloriesPerUnit = 0");
+
+        foodDao.recomputeStats();
+        FoodEntity apple = dao.getFood("apple");
+        assertEquals(2, apple.getUseCount());
+        assertEquals(90, apple.getLastCaloriesPerUnit(), 0.0001);
+    }
+
+    @Test
+    public void score_followsEveryInsertPath() {
+        int day = 19787; // 2024-03-05
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 1));
+        dao.insertAll(Arrays.asList(
+                new CalorieEntryEntity("2024-03-05", "apple", 1, 95, 2),
+                new CalorieEntryEntity("2024-02-20", "Pear", 1, 60, 3)));
+        assertEquals(2, FoodEntity.decayedUses(dao.getFood("apple").getScore(), day), 1e-9);
+        assertEquals(0.5, FoodEntity.decayedUses(dao.getFood("pear").getScore(), day), 1e-9);
+
+        // Quick add reads the stored score, not the one the caller holds
+        FoodEntity pear = dao.getFood("pear");
+        dao.insertForFood(new CalorieEntryEntity("2024-03-05", null, 1, 60, 4), pear);
+        dao.insertForFood(new CalorieEntryEntity("2024-03-05", null, 1, 60, 5), pear);
+        assertEquals(2.5, FoodEntity.decayedUses(dao.getFood("pear").getScore(), day), 1e-9);
+        assertEquals("Pear", dao.getEntriesForDateSync(day).get(3).getName());
+    }
+
+    @Test
+    public void score_followsDeletesAndRelabels() {
+        int day = 19787; // 2024-03-05
+        long first = dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 1));
+        long second = dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 2));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Pear", 1, 60, 3));
+        assertTrue(score("apple") > score("pear"));
+
+        // Moving one use off Apple ties it with Pear; deleting another ranks Pear first
+        dao.updateById(first, "Banana", 1, 105);
+        assertEquals(1, FoodEntity.decayedUses(score("apple"), day), 1e-9);
+        assertEquals(1, FoodEntity.decayedUses(score("banana"), day), 1e-9);
+        dao.deleteById(second);
+        assertNull(dao.getFood("apple").getScore());
+        assertEquals(1, FoodEntity.decayedUses(score("pear"), day), 1e-9);
+    }
+
+    private Double score(String normalizedName) {
+        return dao.getFood(normalizedName).getScore();
+    }
+
+    @Test
+    public void fullTextIndex_followsFoods() {
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Greek yogurt with honey", 1, 150, 1));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Frozen yogurt", 1, 120, 2));
+        dao.insert(new CalorieEntryEntity("2024-03-06", "Greek salad", 1, 200, 3));
+
+        assertEquals(2, countMatches(FoodFts.matchQuery("yog")));
+        assertEquals(1, countMatches(FoodFts.matchQuery("GRE yog")));
+        assertEquals(0, countMatches(FoodFts.matchQuery("honey salad")));
+
+        // Counter writes leave the index alone; only a new name re-indexes the row
+        assertEquals(0, countRows("SELECT name FROM sqlite_master WHERE type = 'trigger' "
+                + "AND name LIKE 'room_fts_content_sync_foods_fts_%_UPDATE'"));
+        dao.insert(new CalorieEntryEntity("2024-03-06", "Frozen yogurt", 1, 120, 4));
+        assertEquals(2, countMatches(FoodFts.matchQuery("yog")));
+        db.getOpenHelper().getWritableDatabase()
+                .execSQL("UPDATE foods SET name = 'Frozen custard' WHERE normalizedName = 'frozen yogurt'");
+        assertEquals(1, countMatches(FoodFts.matchQuery("yog")));
+        assertEquals(1, countMatches(FoodFts.matchQuery("cust")));
+    }
+
+    private int countRows(String sql) {
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query(sql)) {
+            return cursor.getCount();
+        }
+    }
+
+    private int countMatches(String match) {
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase().query(
+                "SELECT docid FROM foods_fts WHERE foods_fts MATCH ?", new Object[]{match})) {
+            return cursor.getCount();
+        }
+    }
+
+    private List<FoodEntity> search(String typed, int limit) {
+        String prefix = FoodEntity.normalize(typed);
+        return foodDao.searchByPrefix(prefix, FoodEntity.prefixUpperBound(prefix), limit);
+    }
+}
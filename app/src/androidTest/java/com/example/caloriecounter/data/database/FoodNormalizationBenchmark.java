@@ -0,0 +1,164 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Database size and group-by-food latency of a large synthetic history before
+ * and after the version 5 migration moves names into foods. The history is
+ * written in the version 4 schema, measured, then opened through Room, which
+ * migrates it in place. Results go to logcat under the "FoodNormalization" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FoodNormalizationBenchmark {
+    private static final String TAG = "FoodNormalization";
+    private static final String DB_NAME = "food_normalization_benchmark_db";
+    private static final int ENTRIES = 200_000;
+    private static final int ENTRIES_PER_DAY = 40;
+    private static final int FOODS = 400;
+    private static final int ROUNDS = 10;
+
+    private static final String[] STEMS = {
+            "Coffee with milk", "Banana", "Greek yogurt with honey", "Chicken breast",
+            "Whole wheat toast", "Apple", "Orange juice", "Cheddar cheese sandwich"
+    };
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void sizeAndGroupByFood_beforeAndAfterMigration() {
+        SupportSQLiteOpenHelper legacy = openVersion4();
+        SupportSQLiteDatabase before = legacy.getWritableDatabase();
+        long sizeBefore = vacuumedSize(before);
+        long groupBefore = 0;
+        int foodsBefore = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            try (Cursor cursor = before.query("SELECT name, COUNT(*), TOTAL(quantity * caloriesPerUnit) AS total "
+                    + "FROM calorie_entries GROUP BY name ORDER BY total DESC")) {
+                foodsBefore = cursor.getCount();
+            }
+            // Round 0 warms the page cache
+            if (round > 0) {
+                groupBefore += System.nanoTime() - start;
+            }
+        }
+        legacy.close();
+
+        AppDatabase db = Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addMigrations(AppDatabase.MIGRATION_3_4, AppDatabase.MIGRATION_4_5,
+                        AppDatabase.MIGRATION_5_6, AppDatabase.MIGRATION_6_7, AppDatabase.MIGRATION_7_8,
+                        AppDatabase.MIGRATION_8_9)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        long migrateStart = System.nanoTime();
+        SupportSQLiteDatabase after = db.getOpenHelper().getWritableDatabase();
+        long migrateNanos = System.nanoTime() - migrateStart;
+        long sizeAfter = vacuumedSize(after);
+        long groupAfter = 0;
+        List<FoodTotal> totals = null;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            totals = db.calorieEntryDao().getTotalsByFood();
+            if (round > 0) {
+                groupAfter += System.nanoTime() - start;
+            }
+        }
+        int entries = db.calorieEntryDao().getEntryCount();
+        db.close();
+
+        Log.i(TAG, String.format(Locale.US,
+                "%d entries over %d foods: size %.1f KiB -> %.1f KiB, group by food %.2f ms -> %.2f ms, "
+                        + "migration %.0f ms",
+                ENTRIES, FOODS, sizeBefore / 1024.0, sizeAfter / 1024.0,
+                groupBefore / 1e6 / ROUNDS, groupAfter / 1e6 / ROUNDS, migrateNanos / 1e6));
+
+        assertEquals(ENTRIES, entries);
+        assertEquals(foodsBefore, totals.size());
+        assertTrue("size " + sizeBefore + " -> " + sizeAfter, sizeAfter < sizeBefore);
+    }
+
+    /** Writes the synthetic history as a version 4 database, as the app shipped it. */
+    private SupportSQLiteOpenHelper openVersion4() {
+        SupportSQLiteOpenHelper.Callback callback = new SupportSQLiteOpenHelper.Callback(4) {
+            @Override
+            public void onCreate(SupportSQLiteDatabase db) {
+                db.execSQL("CREATE TABLE calorie_entries (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                        + "date TEXT, epochDay INTEGER NOT NULL DEFAULT 0, name TEXT, quantity REAL NOT NULL, "
+                        + "caloriesPerUnit REAL NOT NULL, timestamp INTEGER NOT NULL)");
+                db.execSQL("CREATE INDEX index_calorie_entries_epochDay_timestamp "
+                        + "ON calorie_entries (epochDay, timestamp)");
+                SupportSQLiteStatement insert = db.compileStatement("INSERT INTO calorie_entries "
+                        + "(date, epochDay, name, quantity, caloriesPerUnit, timestamp) VALUES (?, ?, ?, ?, ?, ?)");
+                Random random = new Random(42);
+                int firstDay = DayKeyCodec.today() - ENTRIES / ENTRIES_PER_DAY;
+                for (int i = 0; i < ENTRIES; i++) {
+                    int day = firstDay + i / ENTRIES_PER_DAY;
+                    int food = random.nextInt(FOODS);
+                    insert.bindString(1, DayKeyCodec.format(day));
+                    insert.bindLong(2, day);
+                    insert.bindString(3, STEMS[food % STEMS.length] + " " + food);
+                    insert.bindDouble(4, 1 + random.nextInt(3));
+                    insert.bindDouble(5, 20 + food);
+                    insert.bindLong(6, i);
+                    insert.executeInsert();
+                }
+                // Summaries and the foods catalog are backfilled in bulk, as on upgrade
+                AppDatabase.MIGRATION_2_3.migrate(db);
+                AppDatabase.MIGRATION_3_4.migrate(db);
+            }
+
+            @Override
+            public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            }
+        };
+        return new FrameworkSQLiteOpenHelperFactory().create(SupportSQLiteOpenHelper.Configuration
+                .builder(context).name(DB_NAME).callback(callback).build());
+    }
+
+    private static long vacuumedSize(SupportSQLiteDatabase db) {
+        db.execSQL("VACUUM");
+        return pragma(db, "page_count") * pragma(db, "page_size");
+    }
+
+    private static long pragma(SupportSQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query("PRAGMA " + name)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Latency of the autocomplete prefix search over a 50k food catalog, for
+ * prefixes from one letter to nearly a full name. The target is under 10 ms
+ * per lookup; results go to logcat under the "FoodSearch" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FoodSearchBenchmark {
+    private static final String TAG = "FoodSearch";
+    private static final int CATALOG_SIZE = 50_000;
+    private static final int LIMIT = 8;
+    private static final int ROUNDS = 20;
+
+    private AppDatabase db;
+    private FoodDao foodDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        foodDao = db.foodDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void searchByPrefix_largeCatalog() {
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+        sql.beginTransaction();
+        try {
+            SupportSQLiteStatement insert = sql.compileStatement(
+                    "INSERT INTO foods (name, normalizedName, lastCaloriesPerUnit, useCount, lastUsed) "
+                            + "VALUES (?, ?, 100, ?, 0)");
+            for (int i = 0; i < CATALOG_SIZE; i++) {
+                // Three-letter stems spread the catalog evenly over first letters
+                String name = String.format(Locale.US, "%c%c%c food %05d",
+                        'a' + i % 26, 'a' + (i / 26) % 26, 'a' + (i / 676) % 26, i);
+                insert.bindString(1, name);
+                insert.bindString(2, name);
+                insert.bindLong(3, 1 + i % 97);
+                insert.executeInsert();
+            }
+            sql.setTransactionSuccessful();
+        } finally {
+            sql.endTransaction();
+        }
+        assertEquals(CATALOG_SIZE, foodDao.count());
+
+        String[] prefixes = {"q", "qx", "qxa", "qxa food 0"};
+        for (String prefix : prefixes) {
+            List<FoodEntity> matches = search(prefix); // warms the statement cache
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                search(prefix);
+            }
+            double millis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+            Log.i(TAG, String.format(Locale.US, "prefix \"%s\": %d matches, %.3f ms",
+                    prefix, matches.size(), millis));
+        }
+    }
+
+    private List<FoodEntity> search(String typed) {
+        String prefix = FoodEntity.normalize(typed);
+        return foodDao.searchByPrefix(prefix, FoodEntity.prefixUpperBound(prefix), LIMIT);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class MealTemplateTest {
+    private static final int DAY = 19787; // 2024-03-05
+
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+    private MealDao mealDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        dao = db.calorieEntryDao();
+        mealDao = db.mealDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void savedMeal_logsAsOneBatch() {
+        long mealId = mealDao.saveMeal(new MealEntity("Breakfast"), Arrays.asList(
+                new MealItemEntity(0, dao.internFood("Coffee").getId(), 1, 5),
+                new MealItemEntity(0, dao.internFood("Toast").getId(), 2, 80),
+                new MealItemEntity(0, dao.internFood("Coffee").getId(), 1, 5)));
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 1));
+        long revision = db.dailyTotalDao().getDay(DAY).getRevision();
+
+        List<CalorieEntryEntity> entries = new ArrayList<>();
+        List<MealItemWithFood> items = mealDao.getItems(mealId);
+        for (int i = 0; i < items.size(); i++) {
+            MealItemWithFood row = items.get(i);
+            CalorieEntryEntity entry = new CalorieEntryEntity("2024-03-05", row.name,
+                    row.item.getQuantity(), row.item.getCaloriesPerUnit(), 10 + i);
+            entry.setFoodId(row.item.getFoodId());
+            entries.add(entry);
+        }
+        List<Long> ids = dao.insertForFoods(entries);
+
+        // The day's revision moves once per row, which the live day checks the batch against
+        assertEquals(3, ids.size());
+        assertEquals(revision + 3, db.dailyTotalDao().getDay(DAY).getRevision());
+        assertEquals(95 + 5 + 160 + 5, dao.getTotalCaloriesForDate(DAY), 0.0001);
+        List<CalorieEntryEntity> day = dao.getEntriesForDateSync(DAY);
+        assertEquals("Toast", day.get(2).getName());
+        assertEquals((long) ids.get(2), day.get(3).getId());
+        assertEquals(2, FoodEntity.decayedUses(
+                dao.getFood("coffee").getScore(), DAY), 1e-9);
+    }
+
+    @Test
+    public void deleteMeal_removesItems() {
+        long mealId = mealDao.saveMeal(new MealEntity("Snack"), Arrays.asList(
+                new MealItemEntity(0, dao.internFood("Apple").getId(), 1, 95)));
+        assertEquals(1, mealDao.deleteMeal(mealId));
+        assertTrue(mealDao.getItems(mealId).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String DB_NAME = "migration_test_db";
+    private static final int DAY = 19787; // 2024-03-05
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void version1_localizedDates_keepTheirDay() {
+        SupportSQLiteOpenHelper legacy = openVersion1(new String[]{
+                "2024-03-05",
+                // Written by SimpleDateFormat under an Arabic locale
+                "٢٠٢٤-٠٣-٠٥",
+                "not a date"
+        });
+        legacy.getWritableDatabase();
+        legacy.close();
+
+        AppDatabase db = Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addMigrations(AppDatabase.MIGRATION_1_2, AppDatabase.MIGRATION_2_3,
+                        AppDatabase.MIGRATION_3_4, AppDatabase.MIGRATION_4_5, AppDatabase.MIGRATION_5_6,
+                        AppDatabase.MIGRATION_6_7, AppDatabase.MIGRATION_7_8,
+                        AppDatabase.MIGRATION_8_9)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        try {
+            List<CalorieEntryEntity> day = db.calorieEntryDao().getEntriesForDateSync(DAY);
+            assertEquals(2, day.size());
+            assertEquals("2024-03-05", day.get(1).getDate());
+            assertEquals(200, db.calorieEntryDao().getTotalCaloriesForDate(DAY), 0.0001);
+            // The unparseable row is kept, on epoch day 0
+            assertEquals(3, db.calorieEntryDao().getEntryCount());
+            assertEquals(1, db.calorieEntryDao().getEntriesForDateSync(0).size());
+        } finally {
+            db.close();
+        }
+    }
+
+    /** A database in the schema the app first shipped with, holding one entry per date. */
+    private SupportSQLiteOpenHelper openVersion1(String[] dates) {
+        SupportSQLiteOpenHelper.Callback callback = new SupportSQLiteOpenHelper.Callback(1) {
+            @Override
+            public void onCreate(SupportSQLiteDatabase db) {
+                db.execSQL("CREATE TABLE calorie_entries (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                        + "date TEXT, name TEXT, quantity REAL NOT NULL, caloriesPerUnit REAL NOT NULL, "
+                        + "timestamp INTEGER NOT NULL)");
+                for (int i = 0; i < dates.length; i++) {
+                    db.execSQL("INSERT INTO calorie_entries (date, name, quantity, caloriesPerUnit, timestamp) "
+                            + "VALUES (?, ?, 1, 100, ?)", new Object[]{dates[i], "Food " + i, i});
+                }
+            }
+
+            @Override
+            public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            }
+        };
+        return new FrameworkSQLiteOpenHelperFactory().create(SupportSQLiteOpenHelper.Configuration
+                .builder(context).name(DB_NAME).callback(callback).build());
+    }
+}
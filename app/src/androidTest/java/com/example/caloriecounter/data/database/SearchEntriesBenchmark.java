@@ -0,0 +1,171 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.caloriecounter.utils.DateUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Cost of paging {@link CalorieEntryDao#searchEntries} over a synthetic
+ * six-year history, for a broad and a narrow search. Room's PagingSource runs
+ * the query wrapped in LIMIT/OFFSET, plus a COUNT over it on every new
+ * generation; both are issued here in that shape, at the top, middle and end
+ * of the results, next to a keyset page at the same depths for reference.
+ * Results go to logcat under the "SearchBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SearchEntriesBenchmark {
+    private static final String TAG = "SearchBenchmark";
+    private static final int YEARS = 6;
+    private static final int ENTRIES_PER_DAY = 10;
+    private static final int FOODS = 400;
+    private static final int PAGE_SIZE = 50;
+    private static final int ROUNDS = 10;
+
+    private static final String[] STEMS = {
+            "Coffee with milk", "Banana", "Greek yogurt with honey", "Chicken breast",
+            "Whole wheat toast", "Apple", "Orange juice", "Cheddar cheese sandwich"
+    };
+
+    // Mirrors CalorieEntryDao.searchEntries
+    private static final String SEARCH = "SELECT e.*, f.name AS name FROM calorie_entries e "
+            + "JOIN foods f ON f.id = e.foodId "
+            + "WHERE e.foodId IN (SELECT docid FROM foods_fts WHERE foods_fts MATCH ?) "
+            + "ORDER BY e.epochDay DESC, e.timestamp DESC, e.id DESC";
+    private static final String KEYSET = "SELECT e.*, f.name AS name FROM calorie_entries e "
+            + "JOIN foods f ON f.id = e.foodId "
+            + "WHERE e.foodId IN (SELECT docid FROM foods_fts WHERE foods_fts MATCH ?) "
+            + "AND e.epochDay <= ? AND (e.epochDay < ? OR e.timestamp < ? OR (e.timestamp = ? AND e.id < ?)) "
+            + "ORDER BY e.epochDay DESC, e.timestamp DESC, e.id DESC LIMIT ?";
+
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        CalorieEntryDao dao = db.calorieEntryDao();
+
+        int dayCount = YEARS * 365;
+        Random random = new Random(42);
+        db.runInTransaction(() -> {
+            for (int d = 0; d < dayCount; d++) {
+                String date = DateUtils.getDateWithOffset(d - dayCount);
+                for (int i = 0; i < ENTRIES_PER_DAY; i++) {
+                    int food = random.nextInt(FOODS);
+                    dao.insert(new CalorieEntryEntity(date, STEMS[food % STEMS.length] + " " + food,
+                            1 + random.nextInt(3), 20 + food, i));
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void broadSearch() {
+        // Matches "Cheddar cheese sandwich" and "Chicken breast", a quarter of the history
+        measure(FoodFts.matchQuery("ch"));
+    }
+
+    @Test
+    public void narrowSearch() {
+        // The "Chicken breast" foods numbered 3, 35 and 3xx, a few percent of the history
+        measure(FoodFts.matchQuery("chicken 3"));
+    }
+
+    private void measure(String match) {
+        SupportSQLiteDatabase raw = db.getOpenHelper().getReadableDatabase();
+        int total = count(raw, match); // warms the page cache
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            assertEquals(total, count(raw, match));
+        }
+        Log.i(TAG, String.format(Locale.US, "\"%s\": %d matches, count %.2f ms",
+                match, total, (System.nanoTime() - start) / 1e6 / ROUNDS));
+
+        int[] offsets = {0, Math.max(0, total / 2), Math.max(0, total - PAGE_SIZE)};
+        for (int offset : offsets) {
+            long[] after = rowBefore(raw, match, offset);
+            long offsetNanos = 0;
+            long keysetNanos = 0;
+            for (int round = 0; round <= ROUNDS; round++) {
+                long pageStart = System.nanoTime();
+                int offsetRows = offsetPage(raw, match, offset);
+                long pageEnd = System.nanoTime();
+                int keysetRows = after == null ? offsetRows : keysetPage(raw, match, after);
+                long keysetEnd = System.nanoTime();
+                assertEquals(offsetRows, keysetRows);
+                // Round 0 warms the statement and page caches
+                if (round > 0) {
+                    offsetNanos += pageEnd - pageStart;
+                    keysetNanos += after == null ? pageEnd - pageStart : keysetEnd - pageEnd;
+                }
+            }
+            Log.i(TAG, String.format(Locale.US, "\"%s\" page at %d: offset %.2f ms, keyset %.2f ms",
+                    match, offset, offsetNanos / 1e6 / ROUNDS, keysetNanos / 1e6 / ROUNDS));
+        }
+    }
+
+    private static int count(SupportSQLiteDatabase raw, String match) {
+        try (Cursor c = raw.query("SELECT COUNT(*) FROM (" + SEARCH + ")", new Object[]{match})) {
+            c.moveToFirst();
+            return c.getInt(0);
+        }
+    }
+
+    private static int offsetPage(SupportSQLiteDatabase raw, String match, int offset) {
+        try (Cursor c = raw.query("SELECT * FROM (" + SEARCH + ") LIMIT ? OFFSET ?",
+                new Object[]{match, PAGE_SIZE, offset})) {
+            return drain(c);
+        }
+    }
+
+    private static int keysetPage(SupportSQLiteDatabase raw, String match, long[] after) {
+        try (Cursor c = raw.query(KEYSET, new Object[]{match, after[0], after[0], after[1], after[1], after[2],
+                PAGE_SIZE})) {
+            return drain(c);
+        }
+    }
+
+    /** (epochDay, timestamp, id) of the row just above {@code offset}, or null for the first page. */
+    private static long[] rowBefore(SupportSQLiteDatabase raw, String match, int offset) {
+        if (offset == 0) {
+            return null;
+        }
+        try (Cursor c = raw.query("SELECT epochDay, timestamp, id FROM (" + SEARCH + ") LIMIT 1 OFFSET ?",
+                new Object[]{match, offset - 1})) {
+            c.moveToFirst();
+            return new long[]{c.getLong(0), c.getLong(1), c.getLong(2)};
+        }
+    }
+
+    private static int drain(Cursor c) {
+        int rows = 0;
+        while (c.moveToNext()) {
+            rows++;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.caloriecounter.data.repository;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.caloriecounter.data.database.AppDatabase;
+import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.data.database.FoodEntity;
+import com.example.caloriecounter.data.models.CalorieEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Drives LiveDay the way the repository does, a DAO write followed by its
+ * callback, and checks after each step that the incrementally maintained day
+ * matches a fresh read and that only the expected writes forced a reload.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LiveDayTest {
+    private static final int DAY = 19787; // 2024-03-05
+    private static final String DATE = "2024-03-05";
+
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+    private LiveDay liveDay;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .build();
+        dao = db.calorieEntryDao();
+        liveDay = new LiveDay(db);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void emptyDayWithoutSummaryRow_appliesFirstInsertAsDelta() {
+        assertNull(db.dailyTotalDao().getDay(DAY));
+        liveDay.track(DAY);
+        assertEquals(1, liveDay.getReloads());
+        assertEquals(0, liveDay.getCurrent().getRevision());
+
+        insert("Apple", 2, 95, 1);
+
+        assertMatchesDatabase();
+        assertEquals(1, liveDay.getDeltas());
+        assertEquals(1, liveDay.getReloads());
+    }
+
+    @Test
+    public void inOrderInserts_advanceRevisionWithoutReload() {
+        liveDay.track(DAY);
+        insert("Apple", 2, 95, 1);
+        insert("Coffee", 1, 5, 2);
+        insertAll(Arrays.asList(entity("Bread", 3, 80, 3), entity("Butter", 1, 35, 4)));
+
+        assertMatchesDatabase();
+        assertEquals(3, liveDay.getDeltas());
+        assertEquals(1, liveDay.getReloads());
+        assertEquals(db.dailyTotalDao().getDay(DAY).getRevision(), liveDay.getCurrent().getRevision());
+    }
+
+    @Test
+    public void backDatedInsert_reloads() {
+        liveDay.track(DAY);
+        insert("Apple", 2, 95, 10);
+        insert("Coffee", 1, 5, 5);
+
+        assertMatchesDatabase();
+        assertEquals("Coffee", liveDay.getCurrent().getEntries().get(0).getName());
+        assertEquals(1, liveDay.getDeltas());
+        assertEquals(2, liveDay.getReloads());
+    }
+
+    @Test
+    public void updateAndDelete_applyAsDeltas() {
+        liveDay.track(DAY);
+        long apple = insert("Apple", 2, 95, 1);
+        long coffee = insert("Coffee", 1, 5, 2);
+        insert("Bread", 3, 80, 3);
+
+        FoodEntity food = dao.updateById(apple, "Pear", 1, 60);
+        liveDay.onUpdated(apple, food.getName(), 1, 60);
+        assertMatchesDatabase();
+        assertEquals("Pear", liveDay.getCurrent().getEntries().get(0).getName());
+
+        assertEquals(1, dao.deleteById(coffee));
+        liveDay.onDeleted(coffee);
+        assertMatchesDatabase();
+
+        assertEquals(5, liveDay.getDeltas());
+        assertEquals(1, liveDay.getReloads());
+    }
+
+    @Test
+    public void outOfBandWrite_reloadsExactlyOnce() {
+        liveDay.track(DAY);
+        insert("Apple", 2, 95, 1);
+
+        // An import writes through the DAO without telling the live day
+        dao.insertAll(Arrays.asList(entity("Bread", 3, 80, 2), entity("Butter", 1, 35, 3)));
+        liveDay.verify();
+        assertMatchesDatabase();
+        assertEquals(2, liveDay.getReloads());
+
+        liveDay.verify();
+        assertEquals(2, liveDay.getReloads());
+
+        // The next own write applies as a delta again
+        insert("Coffee", 1, 5, 4);
+        assertMatchesDatabase();
+        assertEquals(2, liveDay.getDeltas());
+        assertEquals(2, liveDay.getReloads());
+    }
+
+    @Test
+    public void outOfBandWrite_beforeOwnWrite_reloadsInsteadOfDelta() {
+        liveDay.track(DAY);
+        dao.insert(entity("Bread", 3, 80, 1));
+
+        // The revision moved by two, one of them not ours
+        insert("Apple", 2, 95, 2);
+
+        assertMatchesDatabase();
+        assertEquals(0, liveDay.getDeltas());
+        assertEquals(2, liveDay.getReloads());
+    }
+
+    private long insert(String name, double quantity, double caloriesPerUnit, long timestamp) {
+        CalorieEntryEntity entity = entity(name, quantity, caloriesPerUnit, timestamp);
+        long id = dao.insert(entity);
+        liveDay.onInserted(entity, id);
+        return id;
+    }
+
+    private void insertAll(List<CalorieEntryEntity> entities) {
+        for (CalorieEntryEntity entity : entities) {
+            entity.setFoodId(dao.internFood(entity.getName()).getId());
+        }
+        List<Long> ids = dao.insertForFoods(entities);
+        liveDay.onInsertedAll(entities, ids);
+    }
+
+    private static CalorieEntryEntity entity(String name, double quantity, double caloriesPerUnit, long timestamp) {
+        return new CalorieEntryEntity(DATE, name, quantity, caloriesPerUnit, timestamp);
+    }
+
+    private void assertMatchesDatabase() {
+        List<CalorieEntryEntity> expected = dao.getEntriesForDateSync(DAY);
+        List<CalorieEntry> actual = liveDay.getCurrent().getEntries();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getTotalCalories(), actual.get(i).getTotalCalories(), 0.0001);
+        }
+        assertEquals(dao.getTotalCaloriesForDate(DAY), liveDay.getCurrent().getTotalCalories(), 0.0001);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.caloriecounter.data.transfer;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.caloriecounter.data.database.AppDatabase;
+import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.utils.DateUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Export throughput and peak heap for small and large histories. Results are
+ * written to logcat under the "ExportBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HistoryExporterBenchmark {
+    private static final String TAG = "ExportBenchmark";
+
+    private Context context;
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        dao = db.calorieEntryDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void export_1k() throws Exception {
+        runExport(1_000, HistoryExporter.Format.CSV);
+    }
+
+    @Test
+    public void export_200k_csv() throws Exception {
+        runExport(200_000, HistoryExporter.Format.CSV);
+    }
+
+    @Test
+    public void export_200k_json() throws Exception {
+        runExport(200_000, HistoryExporter.Format.JSON);
+    }
+
+    private void runExport(int rows, HistoryExporter.Format format) throws Exception {
+        seed(rows);
+        File file = new File(context.getCacheDir(), "export-benchmark." + format.extension);
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        long[] peak = {baseline};
+
+        TransferResult result;
+        try (FileOutputStream out = new FileOutputStream(file);
+             FileChannel channel = out.getChannel()) {
+            result = new HistoryExporter(dao).export(channel, format, (done, total) ->
+                    peak[0] = Math.max(peak[0], runtime.totalMemory() - runtime.freeMemory()));
+        }
+
+        assertEquals(rows, result.getRows());
+        assertEquals(file.length(), result.getBytes());
+        Log.i(TAG, String.format(Locale.US, "%s %d rows: %.0f rows/s, %.1f MB, peak heap +%.1f MB",
+                format, rows, result.getRowsPerSecond(), result.getBytes() / 1e6,
+                (peak[0] - baseline) / 1e6));
+        file.delete();
+    }
+
+    private void seed(int rows) {
+        int days = Math.max(1, rows / 10);
+        db.runInTransaction(() -> {
+            for (int i = 0; i < rows; i++) {
+                int day = i / 10;
+                dao.insert(new CalorieEntryEntity(DateUtils.getDateWithOffset(day - days),
+                        "Food " + (i % 300), 1 + i % 3, 50 + i % 400, i % 10));
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.caloriecounter.ui.Goals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.caloriecounter.data.database.DailyTotal;
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class CalendarMarksTest {
+
+    @Test
+    public void build_setsPresenceAndGoalBitsPerMonth() {
+        List<DailyTotal> totals = new ArrayList<>();
+        totals.add(total(2024, 1, 1, 1500));
+        totals.add(total(2024, 1, 29, 2000));
+        totals.add(total(2024, 2, 31, 2500));
+        totals.add(total(2025, 2, 1, 2100));
+
+        CalendarMarks marks = CalendarMarks.build(totals, 1800, 2200);
+
+        assertEquals(3, marks.monthCount());
+        long february = marks.monthBits(2024, 1);
+        assertTrue(CalendarMarks.hasEntries(february, 1));
+        assertFalse(CalendarMarks.metGoal(february, 1));
+        assertTrue(CalendarMarks.hasEntries(february, 29));
+        assertTrue(CalendarMarks.metGoal(february, 29));
+        assertFalse(CalendarMarks.hasEntries(february, 2));
+
+        long march = marks.monthBits(2024, 2);
+        assertTrue(CalendarMarks.hasEntries(march, 31));
+        assertFalse(CalendarMarks.metGoal(march, 31));
+        assertTrue(marks.hasEntries(DayKeyCodec.toEpochDay(2025, 2, 1)));
+        assertEquals(0, marks.monthBits(2023, 11));
+    }
+
+    @Test
+    public void build_withoutGoalsMarksNothingAsMet() {
+        List<DailyTotal> totals = new ArrayList<>();
+        totals.add(total(2024, 5, 15, 2000));
+
+        long bits = CalendarMarks.build(totals, 0, 0).monthBits(2024, 5);
+
+        assertTrue(CalendarMarks.hasEntries(bits, 15));
+        assertFalse(CalendarMarks.metGoal(bits, 15));
+    }
+
+    private static DailyTotal total(int year, int month, int day, double calories) {
+        int epochDay = DayKeyCodec.toEpochDay(year, month, day);
+        return new DailyTotal(epochDay, DayKeyCodec.format(epochDay), calories);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.caloriecounter.ui.Goals;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.caloriecounter.data.database.DailyTotal;
+import com.example.caloriecounter.utils.DateUtils;
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The calendar's draw path should only issue canvas calls once its month
+ * layout is built. Counts allocations on the drawing thread across repeated
+ * draws of a month with entries, goal markers and today's outline.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CustomCalendarViewDrawTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1200;
+    private static final int DRAWS = 50;
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void onDraw_doesNotAllocateAfterLayout() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        int[] allocations = new int[1];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            CustomCalendarView view = new CustomCalendarView(context);
+            List<DailyTotal> totals = new ArrayList<>();
+            for (int offset = -40; offset < 0; offset++) {
+                // Alternate between inside and outside the goal range
+                totals.add(new DailyTotal(DayKeyCodec.today() + offset,
+                        DateUtils.getDateWithOffset(offset), offset % 2 == 0 ? 2000 : 3000));
+            }
+            view.setMarks(CalendarMarks.build(totals, 1800, 2200));
+            int packed = DayKeyCodec.toPackedDate(DayKeyCodec.today());
+            view.setMonth(DayKeyCodec.monthOf(packed), DayKeyCodec.yearOf(packed));
+
+            view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, WIDTH, HEIGHT);
+            Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+            // First draw may build the layout and warm text caches
+            view.draw(canvas);
+
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+            for (int i = 0; i < DRAWS; i++) {
+                view.draw(canvas);
+            }
+            Debug.stopAllocCounting();
+            allocations[0] = Debug.getThreadAllocCount();
+        });
+
+        assertEquals("allocations across " + DRAWS + " draws", 0, allocations[0]);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.caloriecounter.utils;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * On-device comparison of the previous SimpleDateFormat/Calendar helpers with
+ * {@link DayKeyCodec}. Timings are written to logcat under the
+ * "DayKeyBenchmark" tag, not asserted.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DayKeyCodecBenchmark {
+    private static final String TAG = "DayKeyBenchmark";
+    private static final int DAYS = 5 * 365;
+    private static final int ROUNDS = 20;
+
+    @Test
+    public void formatAndParse_simpleDateFormatVersusCodec() throws ParseException {
+        int firstDay = DayKeyCodec.today() - DAYS;
+        int[] packed = new int[DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            packed[i] = DayKeyCodec.toPackedDate(firstDay + i);
+        }
+
+        // Warm both paths before timing
+        long legacySum = runLegacy(packed);
+        long codecSum = runCodec(packed);
+        assertEquals(legacySum, codecSum);
+
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            legacySum += runLegacy(packed);
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            codecSum += runCodec(packed);
+        }
+        long codecNanos = System.nanoTime() - start;
+
+        assertEquals(legacySum, codecSum);
+        Log.i(TAG, String.format(Locale.US,
+                "format+parse of %d days x %d: SimpleDateFormat %.2f ms, DayKeyCodec %.2f ms (%.1fx)",
+                DAYS, ROUNDS, legacyNanos / 1e6, codecNanos / 1e6, (double) legacyNanos / Math.max(1, codecNanos)));
+    }
+
+    /** What DateUtils.formatDate and a date-string parse cost before the codec. */
+    private static long runLegacy(int[] packed) throws ParseException {
+        long sum = 0;
+        for (int p : packed) {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+            Calendar calendar = Calendar.getInstance();
+            calendar.set(DayKeyCodec.yearOf(p), DayKeyCodec.monthOf(p), DayKeyCodec.dayOf(p));
+            String key = format.format(calendar.getTime());
+            calendar.setTime(format.parse(key));
+            sum += key.length() + calendar.get(Calendar.DAY_OF_MONTH);
+        }
+        return sum;
+    }
+
+    private static long runCodec(int[] packed) {
+        long sum = 0;
+        for (int p : packed) {
+            String key = DayKeyCodec.format(DayKeyCodec.yearOf(p), DayKeyCodec.monthOf(p), DayKeyCodec.dayOf(p));
+            sum += key.length() + DayKeyCodec.dayOf(DayKeyCodec.toPackedDate(DayKeyCodec.parse(key)));
+        }
+        return sum;
+    }
+}
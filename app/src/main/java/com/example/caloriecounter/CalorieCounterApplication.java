@@ -0,0 +1,24 @@
+package com.example.caloriecounter;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+
+import com.example.caloriecounter.data.database.AppDatabase;
+import com.example.caloriecounter.data.database.QueryMetrics;
+import com.example.caloriecounter.utils.FrameStats;
+
+public class CalorieCounterApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Query metrics wrap every statement and frame stats listen to every
+        // frame, so only debuggable builds pay for them
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            QueryMetrics.getInstance().setEnabled(true);
+            FrameStats.setEnabled(true);
+        }
+        // Open the database while the first activity is still inflating
+        AppDatabase.warmUp(this);
+    }
+}
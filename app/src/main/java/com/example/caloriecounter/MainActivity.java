@@ -7,13 +7,29 @@ import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-
+import android.os.ParcelFileDescriptor;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.Toast;
+
+import com.example.caloriecounter.data.database.QueryMetrics;
+import com.example.caloriecounter.data.repository.CalorieRepository;
+import com.example.caloriecounter.data.transfer.HistoryExporter;
 import com.example.caloriecounter.services.MidnightResetReceiver;
+import com.example.caloriecounter.ui.Transfer.TransferProgressDialog;
+import com.example.caloriecounter.ui.Transfer.TransferViewModel;
+import com.example.caloriecounter.utils.FrameStats;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 import androidx.navigation.ui.AppBarConfiguration;
@@ -21,6 +37,7 @@ import androidx.navigation.ui.NavigationUI;
 
 import com.example.caloriecounter.databinding.ActivityMainBinding;
 
+import java.io.FileNotFoundException;
 import java.util.Calendar;
 
 public class MainActivity extends AppCompatActivity {
@@ -28,6 +45,16 @@ public class MainActivity extends AppCompatActivity {
     private ActivityMainBinding binding;
     private MidnightResetReceiver midnightReceiver;
 
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(HistoryExporter.Format.CSV.mimeType),
+            uri -> exportHistory(uri, HistoryExporter.Format.CSV));
+    private final ActivityResultLauncher<String> exportJsonLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(HistoryExporter.Format.JSON.mimeType),
+            uri -> exportHistory(uri, HistoryExporter.Format.JSON));
+    private final ActivityResultLauncher<String[]> importCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(),
+            this::importHistory);
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -54,9 +81,107 @@ public class MainActivity extends AppCompatActivity {
         IntentFilter filter = new IntentFilter();
         filter.addAction(Intent.ACTION_DATE_CHANGED);
         filter.addAction(Intent.ACTION_TIME_CHANGED);
+        filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
         registerReceiver(midnightReceiver, filter);
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.main_menu, menu);
+        // Performance stats are collected in debuggable builds only
+        menu.findItem(R.id.action_perf_stats).setVisible(FrameStats.isEnabled());
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        int id = item.getItemId();
+        if (id == R.id.action_history) {
+            Navigation.findNavController(this, R.id.nav_host_fragment_activity_main)
+                    .navigate(R.id.navigation_history);
+            return true;
+        } else if (id == R.id.action_search) {
+            Navigation.findNavController(this, R.id.nav_host_fragment_activity_main)
+                    .navigate(R.id.navigation_search);
+            return true;
+        } else if (id == R.id.action_export_csv) {
+            exportCsvLauncher.launch("calorie-history.csv");
+            return true;
+        } else if (id == R.id.action_export_json) {
+            exportJsonLauncher.launch("calorie-history.json");
+            return true;
+        } else if (id == R.id.action_import_csv) {
+            importCsvLauncher.launch(new String[]{"text/*", "application/octet-stream"});
+            return true;
+        } else if (id == R.id.action_perf_stats) {
+            showPerfStats();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    /**
+     * Frame percentiles per screen and cache counters, also written to logcat
+     * so they can be collected from a user's device.
+     */
+    private void showPerfStats() {
+        FrameStats.dump();
+        CalorieRepository repository = CalorieRepository.getInstance(this);
+        String cache = repository.getDayCache().describe()
+                + "\n" + repository.describeLiveDay()
+                + "\n\n" + QueryMetrics.getInstance().describe();
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.action_perf_stats)
+                .setMessage(FrameStats.describeAll() + "\n\n" + cache)
+                .setPositiveButton(android.R.string.ok, null)
+                .setNeutralButton(R.string.perf_stats_reset, (dialog, which) -> FrameStats.resetAll())
+                .show();
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        NavController navController = Navigation.findNavController(this, R.id.nav_host_fragment_activity_main);
+        return navController.navigateUp() || super.onSupportNavigateUp();
+    }
+
+    private void exportHistory(Uri uri, HistoryExporter.Format format) {
+        if (uri == null) {
+            return;
+        }
+        ParcelFileDescriptor fd;
+        try {
+            fd = getContentResolver().openFileDescriptor(uri, "wt");
+        } catch (FileNotFoundException e) {
+            fd = null;
+        }
+        if (fd == null) {
+            Toast.makeText(this, getString(R.string.transfer_failed, uri.toString()), Toast.LENGTH_LONG).show();
+            return;
+        }
+        new ViewModelProvider(this).get(TransferViewModel.class).export(fd, format);
+        TransferProgressDialog.newInstance(R.string.export_title)
+                .show(getSupportFragmentManager(), TransferProgressDialog.TAG);
+    }
+
+    private void importHistory(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        ParcelFileDescriptor fd;
+        try {
+            fd = getContentResolver().openFileDescriptor(uri, "r");
+        } catch (FileNotFoundException e) {
+            fd = null;
+        }
+        if (fd == null) {
+            Toast.makeText(this, getString(R.string.transfer_failed, uri.toString()), Toast.LENGTH_LONG).show();
+            return;
+        }
+        new ViewModelProvider(this).get(TransferViewModel.class).importCsv(fd);
+        TransferProgressDialog.newInstance(R.string.import_title)
+                .show(getSupportFragmentManager(), TransferProgressDialog.TAG);
+    }
+
     // ✅ Notification Channel Code
     private void createNotificationChannel() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
@@ -1,31 +1,363 @@
 package com.example.caloriecounter.data.database;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.caloriecounter.data.repository.AppExecutors;
+import com.example.caloriecounter.utils.DayKeyCodec;
 
-@Database(entities = {CalorieEntryEntity.class}, version = 1, exportSchema = false)
+@Database(entities = {CalorieEntryEntity.class, DailyTotalEntity.class, FoodEntity.class, FoodFts.class,
+        MealEntity.class, MealItemEntity.class}, version = 9, exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
 
+    private static final String TAG = "AppDatabase";
     private static final String DATABASE_NAME = "calorie_counter_db";
     private static volatile AppDatabase INSTANCE;
+    private static volatile long openMillis = -1;
+
+    /**
+     * Version 2 adds the integer epochDay key and the (epochDay, timestamp) index.
+     * Existing rows are backfilled by parsing their date in Java: older versions
+     * wrote it with a localized SimpleDateFormat, so it may hold non-ASCII
+     * digits that SQLite's julianday() cannot read. Each date is rewritten in
+     * the canonical "yyyy-MM-dd" form as well; rows whose date does not parse
+     * keep epochDay 0.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE calorie_entries ADD COLUMN epochDay INTEGER NOT NULL DEFAULT 0");
+            SupportSQLiteStatement update = db.compileStatement(
+                    "UPDATE calorie_entries SET epochDay = ?, date = ? WHERE id = ?");
+            try (Cursor cursor = db.query("SELECT id, date FROM calorie_entries")) {
+                while (cursor.moveToNext()) {
+                    int epochDay;
+                    try {
+                        epochDay = DayKeyCodec.parse(cursor.getString(1));
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+                    update.bindLong(1, epochDay);
+                    update.bindString(2, DayKeyCodec.format(epochDay));
+                    update.bindLong(3, cursor.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            }
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_calorie_entries_epochDay_timestamp "
+                    + "ON calorie_entries (epochDay, timestamp)");
+        }
+    };
+
+    /**
+     * Recomputes one day of daily_totals from its indexed calorie_entries rows.
+     * %1$s is NEW or OLD depending on the trigger.
+     */
+    private static final String RECOMPUTE_DAY_SQL =
+            "UPDATE daily_totals SET "
+                    + "entryCount = (SELECT COUNT(*) FROM calorie_entries WHERE epochDay = %1$s.epochDay), "
+                    + "totalCalories = (SELECT TOTAL(quantity * caloriesPerUnit) FROM calorie_entries "
+                    + "WHERE epochDay = %1$s.epochDay), "
+                    + "revision = revision + 1 "
+                    + "WHERE epochDay = %1$s.epochDay";
+
+    private static final String ENSURE_DAY_SQL =
+            "INSERT OR IGNORE INTO daily_totals (epochDay, date, entryCount, totalCalories, revision) "
+                    + "VALUES (NEW.epochDay, NEW.date, 0, 0, 0)";
+
+    static final String[] DAILY_TOTALS_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS daily_totals_after_insert AFTER INSERT ON calorie_entries BEGIN "
+                    + ENSURE_DAY_SQL + "; "
+                    + String.format(RECOMPUTE_DAY_SQL, "NEW") + "; END",
+            "CREATE TRIGGER IF NOT EXISTS daily_totals_after_delete AFTER DELETE ON calorie_entries BEGIN "
+                    + String.format(RECOMPUTE_DAY_SQL, "OLD") + "; END",
+            "CREATE TRIGGER IF NOT EXISTS daily_totals_after_update AFTER UPDATE ON calorie_entries BEGIN "
+                    + String.format(RECOMPUTE_DAY_SQL, "OLD") + "; "
+                    + ENSURE_DAY_SQL + "; "
+                    + String.format(RECOMPUTE_DAY_SQL, "NEW") + " AND NEW.epochDay != OLD.epochDay; END"
+    };
+
+    /**
+     * Version 3 adds the daily_totals summary table, fills it from the existing
+     * history and installs the triggers that keep it in sync.
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS daily_totals (epochDay INTEGER NOT NULL, date TEXT, "
+                    + "entryCount INTEGER NOT NULL, totalCalories REAL NOT NULL, revision INTEGER NOT NULL, "
+                    + "PRIMARY KEY(epochDay))");
+            db.execSQL("INSERT OR REPLACE INTO daily_totals (epochDay, date, entryCount, totalCalories, revision) "
+                    + "SELECT epochDay, date, COUNT(*), TOTAL(quantity * caloriesPerUnit), 1 "
+                    + "FROM calorie_entries GROUP BY epochDay");
+            createTriggers(db);
+        }
+    };
+
+    /**
+     * Version 4 adds the foods catalog, fills it from the existing history and
+     * installs the name-keyed triggers of that version, which version 5 drops
+     * together with the name column.
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS foods (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "name TEXT, normalizedName TEXT, lastCaloriesPerUnit REAL NOT NULL, "
+                    + "useCount INTEGER NOT NULL, lastUsed INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_foods_normalizedName ON foods (normalizedName)");
+            db.execSQL("INSERT OR REPLACE INTO foods (name, normalizedName, lastCaloriesPerUnit, useCount, lastUsed) "
+                    + "SELECT name, lower(trim(name)) AS normalized, caloriesPerUnit, COUNT(*), MAX(timestamp) "
+                    + "FROM calorie_entries WHERE name IS NOT NULL AND trim(name) != '' GROUP BY normalized");
+            String useFood = "INSERT OR IGNORE INTO foods (name, normalizedName, lastCaloriesPerUnit, useCount, lastUsed) "
+                    + "SELECT NEW.name, lower(trim(NEW.name)), NEW.caloriesPerUnit, 0, NEW.timestamp "
+                    + "WHERE trim(NEW.name) != ''; "
+                    + "UPDATE foods SET name = NEW.name, lastCaloriesPerUnit = NEW.caloriesPerUnit, "
+                    + "useCount = useCount + 1, lastUsed = MAX(lastUsed, NEW.timestamp) "
+                    + "WHERE normalizedName = lower(trim(NEW.name))";
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS foods_after_insert AFTER INSERT ON calorie_entries BEGIN "
+                    + useFood + "; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS foods_after_update AFTER UPDATE OF name, caloriesPerUnit "
+                    + "ON calorie_entries BEGIN " + useFood + "; END");
+        }
+    };
+
+    /**
+     * Version 5 replaces calorie_entries.name with foodId, a reference to the
+     * foods row of the name. Every name, blank ones included, is interned into
+     * foods first; SQLite cannot drop a column in place, so the table is
+     * rebuilt with the same ids, and its indexes and triggers recreated.
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("INSERT OR IGNORE INTO foods (name, normalizedName, lastCaloriesPerUnit, useCount, lastUsed) "
+                    + "SELECT trim(COALESCE(name, '')), lower(trim(COALESCE(name, ''))) AS normalized, "
+                    + "caloriesPerUnit, COUNT(*), MAX(timestamp) FROM calorie_entries GROUP BY normalized");
+            db.execSQL("CREATE TABLE IF NOT EXISTS calorie_entries_new (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "date TEXT, epochDay INTEGER NOT NULL DEFAULT 0, foodId INTEGER NOT NULL, "
+                    + "quantity REAL NOT NULL, caloriesPerUnit REAL NOT NULL, timestamp INTEGER NOT NULL, "
+                    + "FOREIGN KEY(foodId) REFERENCES foods(id) ON UPDATE NO ACTION ON DELETE NO ACTION)");
+            db.execSQL("INSERT INTO calorie_entries_new (id, date, epochDay, foodId, quantity, caloriesPerUnit, timestamp) "
+                    + "SELECT e.id, e.date, e.epochDay, f.id, e.quantity, e.caloriesPerUnit, e.timestamp "
+                    + "FROM calorie_entries e JOIN foods f ON f.normalizedName = lower(trim(COALESCE(e.name, '')))");
+            // Dropping the old table drops its indexes and triggers with it
+            db.execSQL("DROP TABLE calorie_entries");
+            db.execSQL("ALTER TABLE calorie_entries_new RENAME TO calorie_entries");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_calorie_entries_epochDay_timestamp "
+                    + "ON calorie_entries (epochDay, timestamp)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_calorie_entries_foodId ON calorie_entries (foodId)");
+            createTriggers(db);
+        }
+    };
+
+    /**
+     * Version 6 adds foods_fts, the full-text index over food names, with the
+     * content-sync triggers Room would create for a fresh install, and builds
+     * it from the existing foods.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `foods_fts` USING FTS4(`name` TEXT, content=`foods`)");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_foods_fts_BEFORE_UPDATE "
+                    + "BEFORE UPDATE ON `foods` BEGIN DELETE FROM `foods_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_foods_fts_BEFORE_DELETE "
+                    + "BEFORE DELETE ON `foods` BEGIN DELETE FROM `foods_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_foods_fts_AFTER_UPDATE "
+                    + "AFTER UPDATE ON `foods` BEGIN INSERT INTO `foods_fts`(`docid`, `name`) "
+                    + "VALUES (NEW.`rowid`, NEW.`name`); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_foods_fts_AFTER_INSERT "
+                    + "AFTER INSERT ON `foods` BEGIN INSERT INTO `foods_fts`(`docid`, `name`) "
+                    + "VALUES (NEW.`rowid`, NEW.`name`); END");
+            db.execSQL("INSERT INTO foods_fts(foods_fts) VALUES ('rebuild')");
+        }
+    };
+
+    /**
+     * Version 7 adds the recency-weighted foods.score and its index, filled by
+     * {@link #rescoreFoods}.
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE foods ADD COLUMN score REAL");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_foods_score ON foods (score)");
+            rescoreFoods(db);
+        }
+    };
+
+    /** Version 8 adds meal templates: meals and their meal_items. */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS meals (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, name TEXT)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS meal_items (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "mealId INTEGER NOT NULL, foodId INTEGER NOT NULL, quantity REAL NOT NULL, "
+                    + "caloriesPerUnit REAL NOT NULL, "
+                    + "FOREIGN KEY(mealId) REFERENCES meals(id) ON UPDATE NO ACTION ON DELETE CASCADE, "
+                    + "FOREIGN KEY(foodId) REFERENCES foods(id) ON UPDATE NO ACTION ON DELETE NO ACTION)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_meal_items_mealId ON meal_items (mealId)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_meal_items_foodId ON meal_items (foodId)");
+        }
+    };
+
+    /**
+     * Version 9 moves food use counting from triggers into
+     * {@link CalorieEntryDao}, which writes a food's counters and score in one
+     * UPDATE and does not count edits as uses. The stats and scores the old
+     * triggers inflated, along with those deletes never lowered, are
+     * recomputed from the history.
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TRIGGER IF EXISTS foods_after_insert");
+            db.execSQL("DROP TRIGGER IF EXISTS foods_after_update");
+            db.execSQL("UPDATE foods SET " + FoodDao.RECOMPUTE_STATS_SET);
+            rescoreFoods(db);
+        }
+    };
+
+    /**
+     * Scores every food from the history. SQLite has no exp() or log() to fold
+     * it in SQL, so this reads the uses per food and day once, in foodId order,
+     * and folds each food's days with {@link FoodEntity#addUses}. Foods without
+     * entries get no score.
+     */
+    static void rescoreFoods(SupportSQLiteDatabase db) {
+        db.execSQL("UPDATE foods SET score = NULL");
+        SupportSQLiteStatement update = db.compileStatement("UPDATE foods SET score = ? WHERE id = ?");
+        try (Cursor cursor = db.query("SELECT foodId, epochDay, COUNT(*) FROM calorie_entries "
+                + "GROUP BY foodId, epochDay ORDER BY foodId")) {
+            long foodId = -1;
+            Double score = null;
+            while (cursor.moveToNext()) {
+                if (cursor.getLong(0) != foodId) {
+                    setScore(update, foodId, score);
+                    foodId = cursor.getLong(0);
+                    score = null;
+                }
+                score = FoodEntity.addUses(score, cursor.getInt(1), cursor.getInt(2));
+            }
+            setScore(update, foodId, score);
+        }
+    }
+
+    private static void setScore(SupportSQLiteStatement update, long foodId, Double score) {
+        if (score == null) {
+            return;
+        }
+        update.bindDouble(1, score);
+        update.bindLong(2, foodId);
+        update.executeUpdateDelete();
+    }
+
+    /**
+     * Name-conditional replacements for Room's foods_fts update triggers, which
+     * re-index a food on every UPDATE of its row, counter writes included.
+     * Room drops and recreates its own room_fts_content_sync_* triggers around
+     * each migration, so these have their own names and replace Room's on
+     * every open; once in place, opening runs no DDL.
+     */
+    static final String[] FOODS_FTS_TRIGGERS = {
+            "DROP TRIGGER IF EXISTS room_fts_content_sync_foods_fts_BEFORE_UPDATE",
+            "DROP TRIGGER IF EXISTS room_fts_content_sync_foods_fts_AFTER_UPDATE",
+            "CREATE TRIGGER IF NOT EXISTS foods_fts_before_rename BEFORE UPDATE OF name ON foods "
+                    + "WHEN OLD.name IS NOT NEW.name BEGIN DELETE FROM foods_fts WHERE docid = OLD.rowid; END",
+            "CREATE TRIGGER IF NOT EXISTS foods_fts_after_rename AFTER UPDATE OF name ON foods "
+                    + "WHEN OLD.name IS NOT NEW.name BEGIN INSERT INTO foods_fts(docid, name) "
+                    + "VALUES (NEW.rowid, NEW.name); END"
+    };
+
+    static final Callback CREATE_TRIGGERS_CALLBACK = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            createTriggers(db);
+        }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            for (String sql : FOODS_FTS_TRIGGERS) {
+                db.execSQL(sql);
+            }
+        }
+    };
+
+    static void createTriggers(SupportSQLiteDatabase db) {
+        for (String sql : DAILY_TOTALS_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
 
     public abstract CalorieEntryDao calorieEntryDao();
 
+    public abstract DailyTotalDao dailyTotalDao();
+
+    public abstract FoodDao foodDao();
+
+    public abstract MealDao mealDao();
+
     public static AppDatabase getInstance(Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    AppExecutors executors = AppExecutors.getInstance();
+                    INSTANCE = QueryMetrics.getInstance().install(applyOpenProfile(Room.databaseBuilder(
                                     context.getApplicationContext(),
                                     AppDatabase.class,
                                     DATABASE_NAME
-                            )
+                            ), executors), executors.roomQuery())
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                                    MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9)
+                            .addCallback(CREATE_TRIGGERS_CALLBACK)
                             .build();
                 }
             }
         }
         return INSTANCE;
     }
-}
\ No newline at end of file
+
+    /**
+     * WAL so readers never wait on the writer, with Room's background work on
+     * the app's own executors instead of the shared architecture IO pool.
+     */
+    static RoomDatabase.Builder<AppDatabase> applyOpenProfile(RoomDatabase.Builder<AppDatabase> builder,
+                                                              AppExecutors executors) {
+        return builder
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(executors.roomQuery())
+                .setTransactionExecutor(executors.roomTransaction());
+    }
+
+    /**
+     * Opens SQLite off the main thread, running migrations, trigger setup and
+     * schema validation before the first screen asks for data. Safe to call
+     * more than once.
+     */
+    public static void warmUp(Context context) {
+        Context appContext = context.getApplicationContext();
+        AppExecutors.getInstance().roomQuery().execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            getInstance(appContext).getOpenHelper().getWritableDatabase();
+            if (openMillis < 0) {
+                openMillis = SystemClock.elapsedRealtime() - start;
+                Log.i(TAG, "Database ready in " + openMillis + " ms");
+            }
+        });
+    }
+
+    /** Milliseconds the startup warm-up spent opening the database, or -1 if it has not finished. */
+    public static long getOpenMillis() {
+        return openMillis;
+    }
+}
@@ -1,41 +1,312 @@
 package com.example.caloriecounter.data.database;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Dao
 public interface CalorieEntryDao {
 
     @Insert
-    void insert(CalorieEntryEntity entry);
+    long insertRow(CalorieEntryEntity entry);
+
+    @Insert
+    List<Long> insertRows(List<CalorieEntryEntity> entries);
 
     @Update
-    void update(CalorieEntryEntity entry);
+    void updateRow(CalorieEntryEntity entry);
 
     @Delete
-    void delete(CalorieEntryEntity entry);
+    void deleteRow(CalorieEntryEntity entry);
+
+    @Query("SELECT foodId FROM calorie_entries WHERE id = :id")
+    Long getFoodIdOf(long id);
+
+    @Query("UPDATE foods SET " + FoodDao.RECOMPUTE_STATS_SET + ", score = :score WHERE id = :foodId")
+    void refreshFoodStats(long foodId, Double score);
+
+    @Query("SELECT epochDay FROM calorie_entries WHERE foodId = :foodId")
+    List<Integer> getEntryDays(long foodId);
+
+    @Query("INSERT OR IGNORE INTO foods (name, normalizedName, lastCaloriesPerUnit, useCount, lastUsed) " +
+            "VALUES (:name, :normalizedName, 0, 0, 0)")
+    void insertFoodIfMissing(String name, String normalizedName);
+
+    @Query("SELECT * FROM foods WHERE normalizedName = :normalizedName")
+    FoodEntity getFood(String normalizedName);
+
+    /**
+     * The foods row for a name, created on first use. Names that differ only in
+     * surrounding spaces or ASCII case share one row, named as first typed.
+     */
+    @Transaction
+    default FoodEntity internFood(String name) {
+        String typed = name != null ? name.trim() : "";
+        String normalizedName = FoodEntity.normalize(typed);
+        insertFoodIfMissing(typed, normalizedName);
+        return getFood(normalizedName);
+    }
+
+    @Query("SELECT * FROM foods WHERE id = :foodId")
+    FoodEntity getFoodById(long foodId);
+
+    /**
+     * Store the counters and score of a food after {@link FoodEntity#addUse},
+     * one UPDATE per food however many entries were added.
+     */
+    @Query("UPDATE foods SET useCount = :useCount, lastCaloriesPerUnit = :lastCaloriesPerUnit, " +
+            "lastUsed = :lastUsed, score = :score WHERE id = :foodId")
+    void setFoodUses(long foodId, int useCount, double lastCaloriesPerUnit, long lastUsed, Double score);
+
+    default void saveUses(FoodEntity food) {
+        setFoodUses(food.getId(), food.getUseCount(), food.getLastCaloriesPerUnit(), food.getLastUsed(),
+                food.getScore());
+    }
+
+    /**
+     * Insert an entry, interning its name. The entry's name is replaced by the
+     * food's stored name so that it reads back the same.
+     */
+    @Transaction
+    default long insert(CalorieEntryEntity entry) {
+        FoodEntity food = internFood(entry.getName());
+        entry.setFoodId(food.getId());
+        entry.setName(food.getName());
+        long id = insertRow(entry);
+        food.addUse(entry);
+        saveUses(food);
+        return id;
+    }
+
+    /**
+     * Insert an entry of a food already in the catalog, such as a quick-add
+     * pick. The food is addressed by id, so no name is looked up; its counters
+     * are read again, as the caller's copy may be stale.
+     */
+    @Transaction
+    default long insertForFood(CalorieEntryEntity entry, FoodEntity food) {
+        entry.setFoodId(food.getId());
+        entry.setName(food.getName());
+        long id = insertRow(entry);
+        FoodEntity current = getFoodById(food.getId());
+        current.addUse(entry);
+        saveUses(current);
+        return id;
+    }
+
+    /**
+     * Insert entries whose foodId is already set, such as a meal template's,
+     * in one transaction, so observers see them land together. Each distinct
+     * food is read and updated once.
+     * @return the new row ids, in the order of {@code entries}
+     */
+    @Transaction
+    default List<Long> insertForFoods(List<CalorieEntryEntity> entries) {
+        List<Long> ids = insertRows(entries);
+        Map<Long, FoodEntity> foods = new HashMap<>();
+        for (CalorieEntryEntity entry : entries) {
+            FoodEntity food = foods.get(entry.getFoodId());
+            if (food == null) {
+                food = getFoodById(entry.getFoodId());
+                foods.put(food.getId(), food);
+            }
+            food.addUse(entry);
+        }
+        for (FoodEntity food : foods.values()) {
+            saveUses(food);
+        }
+        return ids;
+    }
+
+    // One transaction for the whole list; each distinct name is looked up and updated once
+    @Transaction
+    default void insertAll(List<CalorieEntryEntity> entries) {
+        Map<String, FoodEntity> foods = new HashMap<>();
+        for (CalorieEntryEntity entry : entries) {
+            String normalizedName = FoodEntity.normalize(entry.getName() != null ? entry.getName() : "");
+            FoodEntity food = foods.get(normalizedName);
+            if (food == null) {
+                food = internFood(entry.getName());
+                foods.put(normalizedName, food);
+            }
+            entry.setFoodId(food.getId());
+            entry.setName(food.getName());
+            food.addUse(entry);
+        }
+        insertRows(entries);
+        for (FoodEntity food : foods.values()) {
+            saveUses(food);
+        }
+    }
+
+    @Transaction
+    default void update(CalorieEntryEntity entry) {
+        Long oldFoodId = getFoodIdOf(entry.getId());
+        FoodEntity food = internFood(entry.getName());
+        entry.setFoodId(food.getId());
+        entry.setName(food.getName());
+        updateRow(entry);
+        refreshFoods(oldFoodId, food.getId());
+    }
 
-    @Query("SELECT * FROM calorie_entries WHERE date = :date ORDER BY timestamp ASC")
-    LiveData<List<CalorieEntryEntity>> getEntriesForDate(String date);
+    // Id-addressed writes touch a single row through the primary key
+    @Query("UPDATE calorie_entries SET foodId = :foodId, quantity = :quantity, caloriesPerUnit = :caloriesPerUnit " +
+            "WHERE id = :id")
+    int updateFoodById(long id, long foodId, double quantity, double caloriesPerUnit);
 
-    @Query("SELECT * FROM calorie_entries WHERE date = :date ORDER BY timestamp ASC")
-    List<CalorieEntryEntity> getEntriesForDateSync(String date);
+    /**
+     * Re-point an entry at the food of {@code name} with new amounts.
+     * @return the entry's food, or null if there is no such entry
+     */
+    @Transaction
+    default FoodEntity updateById(long id, String name, double quantity, double caloriesPerUnit) {
+        Long oldFoodId = getFoodIdOf(id);
+        if (oldFoodId == null) {
+            return null;
+        }
+        FoodEntity food = internFood(name);
+        updateFoodById(id, food.getId(), quantity, caloriesPerUnit);
+        refreshFoods(oldFoodId, food.getId());
+        return food;
+    }
 
-    @Query("SELECT SUM(quantity * caloriesPerUnit) FROM calorie_entries WHERE date = :date")
-    double getTotalCaloriesForDate(String date);
+    @Transaction
+    default void delete(CalorieEntryEntity entry) {
+        deleteRow(entry);
+        refreshFood(entry.getFoodId());
+    }
 
-    @Query("SELECT DISTINCT date FROM calorie_entries ORDER BY date DESC")
+    @Query("DELETE FROM calorie_entries WHERE id = :id")
+    int deleteRowById(long id);
+
+    @Transaction
+    default int deleteById(long id) {
+        Long foodId = getFoodIdOf(id);
+        if (foodId == null) {
+            return 0;
+        }
+        int rows = deleteRowById(id);
+        refreshFood(foodId);
+        return rows;
+    }
+
+    /** Refresh the food an entry left and, if it moved, the one it joined. */
+    default void refreshFoods(Long oldFoodId, long newFoodId) {
+        if (oldFoodId != null && oldFoodId != newFoodId) {
+            refreshFood(oldFoodId);
+        }
+        refreshFood(newFoodId);
+    }
+
+    /**
+     * Recompute one food's stats and score from its remaining entries, in one
+     * UPDATE. Inserts add to both; edits and deletes call this for every food
+     * they took an entry from or gave one to, so edits are not counted as
+     * uses. A log-sum cannot have a use subtracted exactly, so the score is
+     * folded again from the food's entry days; a food with none left drops out
+     * of the ranking.
+     */
+    default void refreshFood(long foodId) {
+        Double score = null;
+        for (int epochDay : getEntryDays(foodId)) {
+            score = FoodEntity.addUses(score, epochDay, 1);
+        }
+        refreshFoodStats(foodId, score);
+    }
+
+    // Entry reads join the food name back in through foods' primary key
+
+    @Query("SELECT e.*, f.name AS name FROM calorie_entries e JOIN foods f ON f.id = e.foodId " +
+            "WHERE e.epochDay = :epochDay ORDER BY e.timestamp ASC")
+    List<CalorieEntryWithFood> getEntryRowsForDate(int epochDay);
+
+    default List<CalorieEntryEntity> getEntriesForDateSync(int epochDay) {
+        return CalorieEntryWithFood.toEntities(getEntryRowsForDate(epochDay));
+    }
+
+    /**
+     * Calories and entry count per food over the whole history. Grouping is on
+     * the integer foodId, served in order by its index.
+     */
+    @Query("SELECT f.id AS foodId, f.name AS name, COUNT(*) AS entryCount, " +
+            "TOTAL(e.quantity * e.caloriesPerUnit) AS totalCalories " +
+            "FROM calorie_entries e JOIN foods f ON f.id = e.foodId " +
+            "GROUP BY e.foodId ORDER BY totalCalories DESC")
+    List<FoodTotal> getTotalsByFood();
+
+    // Totals and date lists read the trigger-maintained daily_totals summary
+    @Query("SELECT totalCalories FROM daily_totals WHERE epochDay = :epochDay")
+    double getTotalCaloriesForDate(int epochDay);
+
+    @Query("SELECT date FROM daily_totals WHERE entryCount > 0 ORDER BY epochDay DESC")
     LiveData<List<String>> getAllDatesWithEntries();
 
-    @Query("DELETE FROM calorie_entries WHERE date = :date")
-    void deleteEntriesForDate(String date);
+    @Query("SELECT epochDay, date, totalCalories AS total FROM daily_totals " +
+            "WHERE entryCount > 0 ORDER BY epochDay ASC")
+    LiveData<List<DailyTotal>> getAllDailyTotals();
+
+    @Query("SELECT epochDay, date, totalCalories AS total FROM daily_totals " +
+            "WHERE entryCount > 0 AND epochDay BETWEEN :fromEpochDay AND :toEpochDay ORDER BY epochDay ASC")
+    LiveData<List<DailyTotal>> getDailyTotals(int fromEpochDay, int toEpochDay);
+
+    @Query("SELECT epochDay, date, totalCalories AS total FROM daily_totals " +
+            "WHERE entryCount > 0 AND epochDay BETWEEN :fromEpochDay AND :toEpochDay ORDER BY epochDay ASC")
+    List<DailyTotal> getDailyTotalsSync(int fromEpochDay, int toEpochDay);
+
+    /**
+     * Keyset page of the full history in (epochDay, timestamp, id) order, starting after
+     * the given row. The epochDay range keeps the scan on the index; unlike OFFSET or a
+     * long-lived Cursor the cost per page does not grow with the position in the history.
+     */
+    @Query("SELECT e.*, f.name AS name FROM calorie_entries e JOIN foods f ON f.id = e.foodId " +
+            "WHERE e.epochDay >= :epochDay " +
+            "AND (e.epochDay > :epochDay OR e.timestamp > :timestamp OR (e.timestamp = :timestamp AND e.id > :id)) " +
+            "ORDER BY e.epochDay ASC, e.timestamp ASC, e.id ASC LIMIT :limit")
+    List<CalorieEntryWithFood> getEntryRowsAfter(int epochDay, long timestamp, long id, int limit);
+
+    default List<CalorieEntryEntity> getEntriesAfter(int epochDay, long timestamp, long id, int limit) {
+        return CalorieEntryWithFood.toEntities(getEntryRowsAfter(epochDay, timestamp, id, limit));
+    }
+
+    /**
+     * The full history, newest first, walked in (epochDay, timestamp) index
+     * order. Room's PagingSource pages with LIMIT/OFFSET, so a page starting
+     * at row n still steps over the n rows before it, joins included: pages
+     * stay cheap near the top, where the history screen is read, and slow
+     * down linearly deep in it. Whole-history walks, such as the export, use
+     * the keyset {@link #getEntryRowsAfter} instead; doing that here needs a
+     * hand-written PagingSource, whose suspending load cannot be written in
+     * Java without the guava or rx paging artifacts.
+     */
+    @Query("SELECT e.*, f.name AS name FROM calorie_entries e JOIN foods f ON f.id = e.foodId " +
+            "ORDER BY e.epochDay DESC, e.timestamp DESC, e.id DESC")
+    PagingSource<Integer, CalorieEntryWithFood> pageAllEntries();
+
+    /**
+     * Entries of every food whose name matches a {@link FoodFts#matchQuery} expression,
+     * newest first. The full-text lookup runs over distinct names only; the
+     * matching foods' entries are then reached through the foodId index and
+     * sorted. Each LIMIT/OFFSET page, and the COUNT Room runs per generation,
+     * repeats that match and sort, so a page costs about the number of
+     * matching entries rather than the page size. That is what a keyset page
+     * would pay too, so this stays on Room's PagingSource, like
+     * {@link #pageAllEntries}; SearchEntriesBenchmark measures both shapes
+     * on a six-year history.
+     */
+    @Query("SELECT e.*, f.name AS name FROM calorie_entries e JOIN foods f ON f.id = e.foodId " +
+            "WHERE e.foodId IN (SELECT docid FROM foods_fts WHERE foods_fts MATCH :match) " +
+            "ORDER BY e.epochDay DESC, e.timestamp DESC, e.id DESC")
+    PagingSource<Integer, CalorieEntryWithFood> searchEntries(String match);
 
-    @Query("DELETE FROM calorie_entries")
-    void deleteAllEntries();
+    @Query("SELECT COUNT(*) FROM calorie_entries")
+    int getEntryCount();
 }
\ No newline at end of file
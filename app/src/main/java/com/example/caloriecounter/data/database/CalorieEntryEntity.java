@@ -1,21 +1,44 @@
 package com.example.caloriecounter.data.database;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "calorie_entries")
+import com.example.caloriecounter.utils.DateUtils;
+
+/**
+ * One logged entry. The food name is stored once in {@code foods} and referenced
+ * by {@link #getFoodId() foodId}; {@link #getName()} carries the name in and out
+ * of the DAO, which interns it on write and joins it back on read.
+ */
+@Entity(tableName = "calorie_entries",
+        indices = {@Index(value = {"epochDay", "timestamp"}), @Index(value = {"foodId"})},
+        foreignKeys = {@ForeignKey(entity = FoodEntity.class, parentColumns = "id", childColumns = "foodId")})
 public class CalorieEntryEntity {
     @PrimaryKey(autoGenerate = true)
     private long id;
 
     private String date; // Format: "yyyy-MM-dd"
-    private String name;
+    @ColumnInfo(defaultValue = "0")
+    private int epochDay; // Days since 1970-01-01, the indexed lookup key for date
+    private long foodId;
+    @Ignore
+    private String name; // foods.name, filled by the DAO
     private double quantity;
     private double caloriesPerUnit;
     private long timestamp; // For ordering within a day
 
+    // Used by Room
+    CalorieEntryEntity() {
+    }
+
+    @Ignore
     public CalorieEntryEntity(String date, String name, double quantity, double caloriesPerUnit, long timestamp) {
         this.date = date;
+        this.epochDay = DateUtils.toEpochDay(date);
         this.name = name;
         this.quantity = quantity;
         this.caloriesPerUnit = caloriesPerUnit;
@@ -35,10 +58,27 @@ public class CalorieEntryEntity {
         return date;
     }
 
+    // Plain setter: Room fills rows through it. Writers moving an entry set epochDay too
     public void setDate(String date) {
         this.date = date;
     }
 
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    public void setEpochDay(int epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    public long getFoodId() {
+        return foodId;
+    }
+
+    public void setFoodId(long foodId) {
+        this.foodId = foodId;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,29 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.room.Embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A calorie_entries row joined with its food's name, as the DAO reads it.
+ */
+public class CalorieEntryWithFood {
+    @Embedded
+    public CalorieEntryEntity entry;
+    public String name;
+
+    /** The entry with its name filled in. */
+    public CalorieEntryEntity toEntity() {
+        entry.setName(name);
+        return entry;
+    }
+
+    public static List<CalorieEntryEntity> toEntities(List<CalorieEntryWithFood> rows) {
+        List<CalorieEntryEntity> entities = new ArrayList<>(rows.size());
+        for (CalorieEntryWithFood row : rows) {
+            entities.add(row.toEntity());
+        }
+        return entities;
+    }
+}
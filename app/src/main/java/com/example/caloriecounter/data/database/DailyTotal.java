@@ -0,0 +1,28 @@
+package com.example.caloriecounter.data.database;
+
+/**
+ * Per-day calorie sum returned by the aggregated daily total queries.
+ */
+public class DailyTotal {
+    private final int epochDay;
+    private final String date; // Format: "yyyy-MM-dd"
+    private final double total;
+
+    public DailyTotal(int epochDay, String date, double total) {
+        this.epochDay = epochDay;
+        this.date = date;
+        this.total = total;
+    }
+
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public interface DailyTotalDao {
+
+    @Query("SELECT * FROM daily_totals WHERE epochDay = :epochDay")
+    DailyTotalEntity getDay(int epochDay);
+
+    @Query("SELECT * FROM daily_totals WHERE epochDay IN (:epochDays)")
+    List<DailyTotalEntity> getDays(List<Integer> epochDays);
+
+    @Query("INSERT OR IGNORE INTO daily_totals (epochDay, date, entryCount, totalCalories, revision) " +
+            "SELECT epochDay, date, 0, 0, 0 FROM calorie_entries GROUP BY epochDay")
+    void insertMissingDays();
+
+    @Query("UPDATE daily_totals SET " +
+            "entryCount = (SELECT COUNT(*) FROM calorie_entries e WHERE e.epochDay = daily_totals.epochDay), " +
+            "totalCalories = (SELECT TOTAL(e.quantity * e.caloriesPerUnit) FROM calorie_entries e " +
+            "WHERE e.epochDay = daily_totals.epochDay), " +
+            "revision = revision + 1")
+    void recomputeAllDays();
+
+    @Query("UPDATE daily_totals SET " +
+            "entryCount = (SELECT COUNT(*) FROM calorie_entries e WHERE e.epochDay = :epochDay), " +
+            "totalCalories = (SELECT TOTAL(e.quantity * e.caloriesPerUnit) FROM calorie_entries e " +
+            "WHERE e.epochDay = :epochDay), " +
+            "revision = revision + 1 " +
+            "WHERE epochDay = :epochDay")
+    void recomputeDay(int epochDay);
+
+    @Query("SELECT COUNT(*) FROM daily_totals t WHERE " +
+            "t.entryCount != (SELECT COUNT(*) FROM calorie_entries e WHERE e.epochDay = t.epochDay) " +
+            "OR abs(t.totalCalories - (SELECT TOTAL(e.quantity * e.caloriesPerUnit) FROM calorie_entries e " +
+            "WHERE e.epochDay = t.epochDay)) > 0.0001")
+    int countMismatchedDays();
+
+    @Query("SELECT COUNT(DISTINCT epochDay) FROM calorie_entries " +
+            "WHERE epochDay NOT IN (SELECT epochDay FROM daily_totals)")
+    int countMissingDays();
+
+    /**
+     * Recompute every summary row from calorie_entries.
+     */
+    @Transaction
+    default void rebuild() {
+        insertMissingDays();
+        recomputeAllDays();
+    }
+
+    /**
+     * @return true if every day in calorie_entries has a matching summary row
+     */
+    @Transaction
+    default boolean verify() {
+        return countMissingDays() == 0 && countMismatchedDays() == 0;
+    }
+
+    /**
+     * Check the summary table and rebuild it if it has drifted.
+     * @return true if a rebuild was needed
+     */
+    @Transaction
+    default boolean verifyOrRebuild() {
+        if (verify()) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Materialized per-day summary of calorie_entries. Rows are maintained by the
+ * triggers installed in {@link AppDatabase}, never written by app code directly.
+ * A day whose entries were all deleted keeps its row with a zero count so that
+ * its revision keeps increasing.
+ */
+@Entity(tableName = "daily_totals")
+public class DailyTotalEntity {
+    @PrimaryKey
+    private int epochDay;
+
+    private String date; // Format: "yyyy-MM-dd"
+    private int entryCount;
+    private double totalCalories;
+    private long revision; // Bumped on every write to the day
+
+    public DailyTotalEntity(int epochDay, String date, int entryCount, double totalCalories, long revision) {
+        this.epochDay = epochDay;
+        this.date = date;
+        this.entryCount = entryCount;
+        this.totalCalories = totalCalories;
+        this.revision = revision;
+    }
+
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface FoodDao {
+
+    /**
+     * Foods in use whose normalized name starts with the prefix, most used
+     * first. The range on normalizedName is served by its unique index, so only
+     * matching rows are visited. Foods whose entries were all deleted, or that
+     * only appear in meal templates, are not suggested.
+     * @param upper {@link FoodEntity#prefixUpperBound} of the prefix
+     */
+    @Query("SELECT * FROM foods WHERE normalizedName >= :prefix AND normalizedName < :upper " +
+            "AND useCount > 0 ORDER BY useCount DESC, normalizedName LIMIT :limit")
+    List<FoodEntity> searchByPrefix(String prefix, String upper, int limit);
+
+    /**
+     * The foods with the highest recency-weighted score, best first. The score
+     * is kept current on every insert, edit and delete, so this reads the first
+     * rows of its index instead of grouping the history.
+     */
+    @Query("SELECT * FROM foods WHERE score IS NOT NULL AND normalizedName != '' " +
+            "ORDER BY score DESC LIMIT :limit")
+    LiveData<List<FoodEntity>> observeTopFoods(int limit);
+
+    @Query("SELECT COUNT(*) FROM foods")
+    int count();
+
+    /**
+     * SET clause recomputing a foods row's use count, last use and last
+     * calories per unit from its remaining entries through the foodId index.
+     * A food with no entries left keeps its last use and calories.
+     */
+    String RECOMPUTE_STATS_SET = "useCount = (SELECT COUNT(*) FROM calorie_entries e WHERE e.foodId = foods.id), " +
+            "lastUsed = COALESCE((SELECT MAX(e.timestamp) FROM calorie_entries e WHERE e.foodId = foods.id), lastUsed), " +
+            "lastCaloriesPerUnit = COALESCE((SELECT e.caloriesPerUnit FROM calorie_entries e " +
+            "WHERE e.foodId = foods.id ORDER BY e.timestamp DESC LIMIT 1), lastCaloriesPerUnit)";
+
+    /** Recompute every food's stats, e.g. after a migration. */
+    @Query("UPDATE foods SET " + RECOMPUTE_STATS_SET)
+    void recomputeStats();
+}
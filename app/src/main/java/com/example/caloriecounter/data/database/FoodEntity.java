@@ -0,0 +1,149 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One distinct food, keyed by its normalized name and referenced by every
+ * calorie_entries row logged under it. Rows are created when a name is first
+ * logged; {@link CalorieEntryDao} then counts each new entry as a use,
+ * remembering its calories per unit and adding it to the food's
+ * recency-weighted {@link #getScore() score}, and recomputes the foods that
+ * edits and deletes touch.
+ */
+@Entity(tableName = "foods",
+        indices = {@Index(value = {"normalizedName"}, unique = true), @Index(value = {"score"})})
+public class FoodEntity {
+    /** Days for one use's weight in {@link #getScore() score} to halve. */
+    public static final double SCORE_HALF_LIFE_DAYS = 14;
+
+    private static final double LN_2 = Math.log(2);
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    private String name; // As first typed, trimmed
+    private String normalizedName; // Trimmed and ASCII-lowercased, the prefix-search key
+    private double lastCaloriesPerUnit;
+    private int useCount;
+    private long lastUsed; // Timestamp of the newest entry
+    private Double score; // See addUses; null while the food has no entries
+
+    public FoodEntity(String name, String normalizedName, double lastCaloriesPerUnit, int useCount, long lastUsed) {
+        this.name = name;
+        this.normalizedName = normalizedName;
+        this.lastCaloriesPerUnit = lastCaloriesPerUnit;
+        this.useCount = useCount;
+        this.lastUsed = lastUsed;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public double getLastCaloriesPerUnit() {
+        return lastCaloriesPerUnit;
+    }
+
+    public int getUseCount() {
+        return useCount;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    @Nullable
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(@Nullable Double score) {
+        this.score = score;
+    }
+
+    /** Count a new entry of this food as one more use. */
+    void addUse(CalorieEntryEntity entry) {
+        useCount++;
+        lastCaloriesPerUnit = entry.getCaloriesPerUnit();
+        lastUsed = Math.max(lastUsed, entry.getTimestamp());
+        score = addUses(score, entry.getEpochDay(), 1);
+    }
+
+    /**
+     * The score after {@code count} more uses on {@code epochDay}. A score is
+     * log2 of the sum of 2^(day / half-life) over every use, so ordering by it
+     * orders foods by use count decayed to any common day, today included,
+     * without rewriting rows as days pass. Adding uses is one log-add and the
+     * order of additions does not matter.
+     */
+    public static double addUses(@Nullable Double score, int epochDay, int count) {
+        double uses = epochDay / SCORE_HALF_LIFE_DAYS + Math.log(count) / LN_2;
+        if (score == null) {
+            return uses;
+        }
+        double high = Math.max(score, uses);
+        double low = Math.min(score, uses);
+        return high + Math.log1p(Math.pow(2, low - high)) / LN_2;
+    }
+
+    /** Uses behind a score, each weighted by its age on {@code epochDay}. */
+    public static double decayedUses(@Nullable Double score, int epochDay) {
+        return score == null ? 0 : Math.pow(2, score - epochDay / SCORE_HALF_LIFE_DAYS);
+    }
+
+    /**
+     * Java twin of the migrations' {@code lower(trim(name))}: SQLite's trim()
+     * strips spaces only and lower() folds ASCII letters only.
+     */
+    @NonNull
+    public static String normalize(@NonNull CharSequence name) {
+        int start = 0;
+        int end = name.length();
+        while (start < end && name.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && name.charAt(end - 1) == ' ') {
+            end--;
+        }
+        StringBuilder out = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            out.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Smallest string greater than every string starting with {@code prefix},
+     * so {@code normalizedName >= prefix AND normalizedName < upper} is an
+     * index range scan.
+     */
+    @NonNull
+    public static String prefixUpperBound(@NonNull String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            // Only reachable for an all-U+FFFF prefix; nothing sorts above it
+            return prefix + Character.MAX_VALUE;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+}
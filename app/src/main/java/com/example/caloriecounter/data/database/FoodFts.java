@@ -0,0 +1,56 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over food names. Names are stored once in {@code foods}, so
+ * this external-content table indexes each distinct name once whatever the
+ * number of entries logged under it; its docid is the food id. Room's
+ * triggers index inserted foods and drop deleted ones; its update triggers are
+ * replaced on open by {@link AppDatabase#FOODS_FTS_TRIGGERS}, which re-index a
+ * food only when its name changes.
+ */
+@Fts4(contentEntity = FoodEntity.class)
+@Entity(tableName = "foods_fts")
+public class FoodFts {
+    public String name;
+
+    /**
+     * FTS MATCH expression for typed text: every word must appear, each as a
+     * prefix. Characters other than letters and digits only separate
+     * words, and ASCII letters are lowered as the simple tokenizer does, so
+     * typed text can never form FTS operators such as OR or NEAR.
+     * @return null if the text has no words
+     */
+    @Nullable
+    public static String matchQuery(@Nullable CharSequence typed) {
+        if (typed == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        int i = 0;
+        int length = typed.length();
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(typed.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(typed.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                for (int j = start; j < i; j++) {
+                    char c = typed.charAt(j);
+                    query.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+                }
+                query.append('*');
+            }
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.caloriecounter.data.database;
+
+/**
+ * All-time use of one food, returned by the group-by-food query.
+ */
+public class FoodTotal {
+    private final long foodId;
+    private final String name;
+    private final int entryCount;
+    private final double totalCalories;
+
+    public FoodTotal(long foodId, String name, int entryCount, double totalCalories) {
+        this.foodId = foodId;
+        this.name = name;
+        this.entryCount = entryCount;
+        this.totalCalories = totalCalories;
+    }
+
+    public long getFoodId() {
+        return foodId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+}
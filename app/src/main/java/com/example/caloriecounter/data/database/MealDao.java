@@ -0,0 +1,42 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public interface MealDao {
+
+    @Insert
+    long insertMeal(MealEntity meal);
+
+    @Insert
+    void insertItems(List<MealItemEntity> items);
+
+    /** Save a meal and its items together; the items' mealId is filled in. */
+    @Transaction
+    default long saveMeal(MealEntity meal, List<MealItemEntity> items) {
+        long mealId = insertMeal(meal);
+        for (MealItemEntity item : items) {
+            item.setMealId(mealId);
+        }
+        insertItems(items);
+        return mealId;
+    }
+
+    @Query("SELECT * FROM meals ORDER BY name COLLATE NOCASE")
+    LiveData<List<MealEntity>> observeMeals();
+
+    // In the order they were saved, through the mealId index
+    @Query("SELECT i.*, f.name AS name FROM meal_items i JOIN foods f ON f.id = i.foodId " +
+            "WHERE i.mealId = :mealId ORDER BY i.id")
+    List<MealItemWithFood> getItems(long mealId);
+
+    // Items are removed by the mealId foreign key's ON DELETE CASCADE
+    @Query("DELETE FROM meals WHERE id = :mealId")
+    int deleteMeal(long mealId);
+}
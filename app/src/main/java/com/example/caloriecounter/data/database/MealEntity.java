@@ -0,0 +1,32 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * A saved meal template, logged in one go as the entries of its
+ * {@link MealItemEntity items}.
+ */
+@Entity(tableName = "meals")
+public class MealEntity {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    private String name;
+
+    public MealEntity(String name) {
+        this.name = name;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
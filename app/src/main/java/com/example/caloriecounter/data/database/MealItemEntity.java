@@ -0,0 +1,61 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One food of a meal template with the quantity and calories per unit to log
+ * it with. Items go with their meal.
+ */
+@Entity(tableName = "meal_items",
+        indices = {@Index(value = {"mealId"}), @Index(value = {"foodId"})},
+        foreignKeys = {
+                @ForeignKey(entity = MealEntity.class, parentColumns = "id", childColumns = "mealId",
+                        onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = FoodEntity.class, parentColumns = "id", childColumns = "foodId")})
+public class MealItemEntity {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    private long mealId;
+    private long foodId;
+    private double quantity;
+    private double caloriesPerUnit;
+
+    public MealItemEntity(long mealId, long foodId, double quantity, double caloriesPerUnit) {
+        this.mealId = mealId;
+        this.foodId = foodId;
+        this.quantity = quantity;
+        this.caloriesPerUnit = caloriesPerUnit;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getMealId() {
+        return mealId;
+    }
+
+    public void setMealId(long mealId) {
+        this.mealId = mealId;
+    }
+
+    public long getFoodId() {
+        return foodId;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public double getCaloriesPerUnit() {
+        return caloriesPerUnit;
+    }
+}
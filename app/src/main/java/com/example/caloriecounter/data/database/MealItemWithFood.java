@@ -0,0 +1,12 @@
+package com.example.caloriecounter.data.database;
+
+import androidx.room.Embedded;
+
+/**
+ * A meal_items row joined with its food's name, as the DAO reads it.
+ */
+public class MealItemWithFood {
+    @Embedded
+    public MealItemEntity item;
+    public String name;
+}
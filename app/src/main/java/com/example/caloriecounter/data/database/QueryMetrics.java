@@ -0,0 +1,308 @@
+package com.example.caloriecounter.data.database;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.RoomDatabase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in SQLite metrics. Room's {@link RoomDatabase.QueryCallback} runs
+ * synchronously on the querying thread and counts every statement; DAO calls
+ * made through {@link #time} get a latency histogram per method, named
+ * "Dao.method" as in "CalorieEntryDao.insert", and work Room
+ * runs on its query executor, LiveData refreshes and paging loads included,
+ * gets one per statement. Calls slower than the threshold are logged with the
+ * statement and bind args they ran. Must be enabled before the database is
+ * built.
+ */
+public class QueryMetrics {
+
+    private static final String TAG = "QueryMetrics";
+    private static final int MAX_SLOW_QUERIES = 50;
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    private volatile boolean enabled;
+    private volatile long slowThresholdNanos = 50_000_000L;
+
+    private final Map<String, LatencyHistogram> methods = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> queries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> statements = new ConcurrentHashMap<>();
+    private final ArrayDeque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final ThreadLocal<Call> currentCall = new ThreadLocal<>();
+
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setSlowThresholdMillis(long millis) {
+        slowThresholdNanos = millis * 1_000_000L;
+    }
+
+    /**
+     * Installs the statement callback when metrics are enabled, with Room's
+     * queries run on {@code queryExecutor} so that they are timed as well.
+     */
+    RoomDatabase.Builder<AppDatabase> install(RoomDatabase.Builder<AppDatabase> builder, Executor queryExecutor) {
+        if (enabled) {
+            // A direct executor keeps the callback on the thread that runs the statement
+            builder.setQueryCallback(this::onQuery, Runnable::run)
+                    .setQueryExecutor(task -> queryExecutor.execute(() -> timeQuery(task)));
+        }
+        return builder;
+    }
+
+    void onQuery(@NonNull String sql, @NonNull List<?> bindArgs) {
+        if (!enabled) {
+            return;
+        }
+        statements.computeIfAbsent(sql, k -> new AtomicLong()).incrementAndGet();
+        Call call = currentCall.get();
+        if (call != null) {
+            if (call.firstSql == null && !isTransactionControl(sql)) {
+                call.firstSql = sql;
+            }
+            call.statements++;
+            call.lastSql = sql;
+            call.lastArgs = bindArgs;
+        }
+    }
+
+    /**
+     * Runs one DAO call and records its latency under the given method name.
+     * Nested calls are attributed to the outermost one.
+     */
+    public <T> T time(@NonNull String method, @NonNull Supplier<T> daoCall) {
+        if (!enabled || currentCall.get() != null) {
+            return daoCall.get();
+        }
+        Call call = new Call();
+        currentCall.set(call);
+        long start = System.nanoTime();
+        try {
+            return daoCall.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            currentCall.remove();
+            methods.computeIfAbsent(method, k -> new LatencyHistogram()).record(elapsed);
+            if (elapsed >= slowThresholdNanos) {
+                reportSlow(new SlowQuery(method, elapsed, call.statements, call.lastSql,
+                        call.lastArgs != null ? new ArrayList<>(call.lastArgs) : null));
+            }
+        }
+    }
+
+    /**
+     * Runs one task of Room's query executor, recording its latency under the
+     * first statement it ran. Tasks that ran none, such as a LiveData refresh
+     * that found nothing invalidated, are not recorded.
+     */
+    void timeQuery(Runnable task) {
+        if (!enabled || currentCall.get() != null) {
+            task.run();
+            return;
+        }
+        Call call = new Call();
+        currentCall.set(call);
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            currentCall.remove();
+            if (call.firstSql != null) {
+                queries.computeIfAbsent(call.firstSql, k -> new LatencyHistogram()).record(elapsed);
+                if (elapsed >= slowThresholdNanos) {
+                    reportSlow(new SlowQuery("query", elapsed, call.statements, call.lastSql,
+                            call.lastArgs != null ? new ArrayList<>(call.lastArgs) : null));
+                }
+            }
+        }
+    }
+
+    private static boolean isTransactionControl(String sql) {
+        String head = sql.length() > 10 ? sql.substring(0, 10).toUpperCase(Locale.US) : sql.toUpperCase(Locale.US);
+        return head.startsWith("BEGIN") || head.startsWith("END") || head.startsWith("COMMIT")
+                || head.startsWith("ROLLBACK") || head.startsWith("SAVEPOINT") || head.startsWith("RELEASE");
+    }
+
+    private void reportSlow(SlowQuery query) {
+        Log.w(TAG, query.toString());
+        synchronized (slowQueries) {
+            if (slowQueries.size() == MAX_SLOW_QUERIES) {
+                slowQueries.removeFirst();
+            }
+            slowQueries.addLast(query);
+        }
+    }
+
+    @Nullable
+    public LatencyHistogram getMethodStats(@NonNull String method) {
+        return methods.get(method);
+    }
+
+    /** Latency of the query-executor work led by a statement, or null if none ran. */
+    @Nullable
+    public LatencyHistogram getQueryStats(@NonNull String sql) {
+        return queries.get(sql);
+    }
+
+    /** Statements with a latency histogram, in SQL order. */
+    public List<String> getTimedQueries() {
+        return new ArrayList<>(new TreeMap<>(queries).keySet());
+    }
+
+    /** How many times a SQL statement has run, including LiveData and paging queries. */
+    public long getStatementCount(@NonNull String sql) {
+        AtomicLong count = statements.get(sql);
+        return count != null ? count.get() : 0;
+    }
+
+    public long getTotalStatements() {
+        long total = 0;
+        for (AtomicLong count : statements.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public void reset() {
+        methods.clear();
+        queries.clear();
+        statements.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    public String describe() {
+        if (!enabled) {
+            return "query metrics disabled";
+        }
+        StringBuilder out = new StringBuilder(String.format(Locale.US,
+                "%d statements, %d slow", getTotalStatements(), getSlowQueries().size()));
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(methods).entrySet()) {
+            out.append('\n').append(entry.getKey()).append(": ").append(entry.getValue().describe());
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(queries).entrySet()) {
+            String sql = entry.getKey();
+            out.append('\n').append(sql.length() > 80 ? sql.substring(0, 80) + "…" : sql)
+                    .append(": ").append(entry.getValue().describe());
+        }
+        return out.toString();
+    }
+
+    private static class Call {
+        int statements;
+        String firstSql;
+        String lastSql;
+        List<?> lastArgs;
+    }
+
+    /**
+     * Latencies in power-of-two microsecond buckets: bucket i holds calls
+     * shorter than 2^i µs, the last one everything longer.
+     */
+    public static class LatencyHistogram {
+        private static final int BUCKETS = 24;
+
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void record(long nanos) {
+            long micros = nanos / 1000;
+            int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+            buckets[Math.min(BUCKETS - 1, bucket)]++;
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public synchronized long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /** Upper bound in microseconds of the bucket holding the percentile (0-100). */
+        public synchronized long percentileMicros(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        public synchronized String describe() {
+            return String.format(Locale.US, "%d calls, mean %.2f ms, p50 <%d µs, p95 <%d µs, max %.2f ms",
+                    count, count == 0 ? 0 : totalNanos / 1e6 / count,
+                    percentileMicros(50), percentileMicros(95), maxNanos / 1e6);
+        }
+    }
+
+    public static class SlowQuery {
+        public final String method;
+        public final long elapsedNanos;
+        public final int statements;
+        @Nullable
+        public final String lastSql;
+        @Nullable
+        public final List<Object> lastArgs;
+
+        SlowQuery(String method, long elapsedNanos, int statements,
+                  @Nullable String lastSql, @Nullable List<Object> lastArgs) {
+            this.method = method;
+            this.elapsedNanos = elapsedNanos;
+            this.statements = statements;
+            this.lastSql = lastSql;
+            this.lastArgs = lastArgs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "slow %s: %.2f ms over %d statements, last %s %s",
+                    method, elapsedNanos / 1e6, statements, lastSql, lastArgs);
+        }
+    }
+}
@@ -1,17 +1,29 @@
 package com.example.caloriecounter.data.models;
 
 public class CalorieEntry {
-    private long id;
+    private final long id;
     private final String name;
     private final double quantity;
     private final double caloriesPerUnit;
 
     public CalorieEntry(String name, double quantity, double caloriesPerUnit) {
+        this(0, name, quantity, caloriesPerUnit);
+    }
+
+    public CalorieEntry(long id, String name, double quantity, double caloriesPerUnit) {
+        this.id = id;
         this.name = name;
         this.quantity = quantity;
         this.caloriesPerUnit = caloriesPerUnit;
     }
 
+    /**
+     * @return the Room primary key, or 0 for an entry that has not been saved yet
+     */
+    public long getId() {
+        return id;
+    }
+
     public double getTotalCalories() {
         return quantity * caloriesPerUnit;
     }
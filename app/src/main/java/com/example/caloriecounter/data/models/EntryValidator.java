@@ -0,0 +1,27 @@
+package com.example.caloriecounter.data.models;
+
+/**
+ * Validation rules shared by the entry dialog and the bulk importer.
+ */
+public final class EntryValidator {
+
+    public enum Result {
+        VALID,
+        NAME_REQUIRED,
+        INVALID_NUMBERS
+    }
+
+    private EntryValidator() {
+    }
+
+    public static Result validate(String name, double quantity, double caloriesPerUnit) {
+        if (name == null || name.trim().isEmpty()) {
+            return Result.NAME_REQUIRED;
+        }
+        // NaN fails both comparisons and is rejected as well
+        if (!(quantity > 0) || !(caloriesPerUnit > 0) || Double.isInfinite(quantity * caloriesPerUnit)) {
+            return Result.INVALID_NUMBERS;
+        }
+        return Result.VALID;
+    }
+}
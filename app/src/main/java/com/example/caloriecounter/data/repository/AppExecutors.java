@@ -0,0 +1,91 @@
+package com.example.caloriecounter.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * App-wide executors shared by every screen. Writes go through one serialized
+ * thread so they are applied in submission order; reads share a small pool.
+ * Room gets its own query pool and transaction thread, and exports their own
+ * thread, so neither LiveData refreshes nor one-shot reads queue behind a
+ * long export.
+ */
+public class AppExecutors {
+
+    private static final int READ_THREADS = 2;
+    // WAL allows several reader connections next to the single writer
+    private static final int ROOM_QUERY_THREADS = 4;
+    private static volatile AppExecutors INSTANCE;
+
+    private final ExecutorService writer;
+    private final ExecutorService reader;
+    private final ExecutorService roomQuery;
+    private final ExecutorService roomTransaction;
+    private final ExecutorService transfer;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        writer = Executors.newSingleThreadExecutor(namedFactory("calorie-writer"));
+        reader = Executors.newFixedThreadPool(READ_THREADS, namedFactory("calorie-reader"));
+        roomQuery = Executors.newFixedThreadPool(ROOM_QUERY_THREADS, namedFactory("room-query"));
+        roomTransaction = Executors.newSingleThreadExecutor(namedFactory("room-transaction"));
+        transfer = Executors.newSingleThreadExecutor(namedFactory("calorie-transfer"));
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+    }
+
+    public static AppExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public ExecutorService writer() {
+        return writer;
+    }
+
+    public ExecutorService reader() {
+        return reader;
+    }
+
+    public ExecutorService roomQuery() {
+        return roomQuery;
+    }
+
+    public ExecutorService roomTransaction() {
+        return roomTransaction;
+    }
+
+    public ExecutorService transfer() {
+        return transfer;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    private static ThreadFactory namedFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,442 @@
+package com.example.caloriecounter.data.repository;
+
+import android.content.Context;
+import android.os.ParcelFileDescriptor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
+import androidx.room.InvalidationTracker;
+
+import com.example.caloriecounter.data.database.AppDatabase;
+import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.data.database.CalorieEntryWithFood;
+import com.example.caloriecounter.data.database.DailyTotal;
+import com.example.caloriecounter.data.database.DailyTotalDao;
+import com.example.caloriecounter.data.database.DailyTotalEntity;
+import com.example.caloriecounter.data.database.FoodDao;
+import com.example.caloriecounter.data.database.FoodEntity;
+import com.example.caloriecounter.data.database.FoodFts;
+import com.example.caloriecounter.data.database.MealDao;
+import com.example.caloriecounter.data.database.MealEntity;
+import com.example.caloriecounter.data.database.MealItemEntity;
+import com.example.caloriecounter.data.database.MealItemWithFood;
+import com.example.caloriecounter.data.database.QueryMetrics;
+import com.example.caloriecounter.data.models.CalorieEntry;
+import com.example.caloriecounter.data.transfer.HistoryExporter;
+import com.example.caloriecounter.data.transfer.HistoryImporter;
+import com.example.caloriecounter.data.transfer.TransferCallback;
+import com.example.caloriecounter.data.transfer.TransferResult;
+import com.example.caloriecounter.utils.PerfTrace;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Single entry point for calorie data. Writes are serialized on
+ * {@link AppExecutors#writer()}, one-shot reads run on the shared read pool and
+ * every callback is delivered on the main thread.
+ */
+public class CalorieRepository {
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private static final int DAY_CACHE_SIZE = 62;
+    private static volatile CalorieRepository INSTANCE;
+
+    private final AppDatabase database;
+    private final CalorieEntryDao dao;
+    private final DailyTotalDao dailyTotalDao;
+    private final FoodDao foodDao;
+    private final MealDao mealDao;
+    private final AppExecutors executors;
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private final DaySummaryCache dayCache = new DaySummaryCache(DAY_CACHE_SIZE);
+    private final LiveDay liveDay;
+
+    private CalorieRepository(AppDatabase database, AppExecutors executors) {
+        this.database = database;
+        this.dao = database.calorieEntryDao();
+        this.dailyTotalDao = database.dailyTotalDao();
+        this.foodDao = database.foodDao();
+        this.mealDao = database.mealDao();
+        this.executors = executors;
+        this.liveDay = new LiveDay(database);
+
+        // Every committed write to calorie_entries re-validates the cached days
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("calorie_entries") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                executors.reader().execute(CalorieRepository.this::invalidateCachedDays);
+                // A no-op revision check after the repository's own writes
+                executors.writer().execute(liveDay::verify);
+            }
+        });
+    }
+
+    public static CalorieRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (CalorieRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new CalorieRepository(
+                            AppDatabase.getInstance(context), AppExecutors.getInstance());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // Observable reads, refreshed by Room when the underlying tables change
+
+    public LiveData<List<DailyTotal>> observeAllDailyTotals() {
+        return dao.getAllDailyTotals();
+    }
+
+    public LiveData<List<DailyTotal>> observeDailyTotals(int fromEpochDay, int toEpochDay) {
+        return dao.getDailyTotals(fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * The foods most worth a one-tap add, by use count weighted towards recent
+     * days. Read from the persisted score, so it is ready at cold start.
+     */
+    public LiveData<List<FoodEntity>> observeTopFoods(int limit) {
+        return foodDao.observeTopFoods(limit);
+    }
+
+    public LiveData<List<MealEntity>> observeMeals() {
+        return mealDao.observeMeals();
+    }
+
+    /**
+     * Incrementally maintained entries and total of one day. Only one day is
+     * tracked at a time; tracking another switches the same LiveData over.
+     */
+    public LiveData<DaySnapshot> trackDay(int epochDay) {
+        executors.writer().execute(() -> liveDay.track(epochDay));
+        return liveDay.getState();
+    }
+
+    /**
+     * Day close: switches the tracked day over to {@code newDay}, caches its
+     * fresh snapshot so the first read of the new day is a hit, and delivers
+     * the summaries of every day from {@code firstClosedDay} up to the day
+     * before {@code newDay}, oldest first, evaluated against the goal range.
+     */
+    public void rollOver(int firstClosedDay, int newDay, int minGoal, int maxGoal,
+                         Callback<List<DaySnapshot>> closed) {
+        executors.writer().execute(() -> {
+            PerfTrace.begin("Repository.rollOver");
+            try {
+                long generation = dayCache.beginRead();
+                liveDay.track(newDay);
+                // Picks up writes from other paths whose verify is still queued
+                liveDay.verify();
+                dayCache.putIfCurrent(generation, liveDay.getCurrent());
+            } finally {
+                PerfTrace.end();
+            }
+        });
+        read(() -> {
+            List<DaySnapshot> days = new ArrayList<>(Math.max(0, newDay - firstClosedDay));
+            for (int day = firstClosedDay; day < newDay; day++) {
+                DaySnapshot cached = dayCache.get(day);
+                if (cached != null) {
+                    days.add(cached.withGoals(minGoal, maxGoal));
+                    continue;
+                }
+                long generation = dayCache.beginRead();
+                DaySnapshot snapshot = readDay(day, minGoal, maxGoal);
+                dayCache.putIfCurrent(generation, snapshot);
+                days.add(snapshot);
+            }
+            return days;
+        }, closed);
+    }
+
+    public PagingSource<Integer, CalorieEntryWithFood> pageAllEntries() {
+        return dao.pageAllEntries();
+    }
+
+    /**
+     * Entries whose food name matches a {@link FoodFts#matchQuery} expression,
+     * newest first.
+     */
+    public PagingSource<Integer, CalorieEntryWithFood> searchEntries(String match) {
+        return dao.searchEntries(match);
+    }
+
+    // One-shot reads
+
+    /**
+     * Load a day with its goal status, served from the in-memory day cache when
+     * the day has not been written since it was last read.
+     */
+    public void loadDay(int epochDay, int minGoal, int maxGoal, Callback<DaySnapshot> callback) {
+        DaySnapshot cached = dayCache.get(epochDay);
+        if (cached != null) {
+            DaySnapshot snapshot = cached.withGoals(minGoal, maxGoal);
+            executors.mainThread().execute(() -> callback.onResult(snapshot));
+            return;
+        }
+        read(() -> {
+            long generation = dayCache.beginRead();
+            DaySnapshot snapshot = readDay(epochDay, minGoal, maxGoal);
+            dayCache.putIfCurrent(generation, snapshot);
+            return snapshot;
+        }, callback);
+    }
+
+    /**
+     * Catalogued foods whose name starts with the typed text, most used first.
+     * Blocks on an index range scan; call it from a background thread, such
+     * as an autocomplete filter's.
+     */
+    public List<FoodEntity> searchFoods(CharSequence typed, int limit) {
+        String prefix = FoodEntity.normalize(typed);
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String upper = FoodEntity.prefixUpperBound(prefix);
+        return metrics.time("FoodDao.searchByPrefix", () -> foodDao.searchByPrefix(prefix, upper, limit));
+    }
+
+    public DaySummaryCache getDayCache() {
+        return dayCache;
+    }
+
+    public String describeLiveDay() {
+        return liveDay.describe();
+    }
+
+    /**
+     * Run background work on the shared read pool and deliver its result on the main thread.
+     */
+    public <T> void read(Supplier<T> work, Callback<T> callback) {
+        executors.reader().execute(() -> {
+            T result;
+            PerfTrace.begin("Repository.read");
+            try {
+                result = work.get();
+            } finally {
+                PerfTrace.end();
+            }
+            executors.mainThread().execute(() -> callback.onResult(result));
+        });
+    }
+
+    /**
+     * Stream the full history to the given file on the transfer thread, so the
+     * read pool stays free. The pages are read in one transaction, so the file
+     * is a consistent snapshot; writes wait for the export to finish. The
+     * descriptor is closed when done.
+     */
+    public void exportHistory(ParcelFileDescriptor target, HistoryExporter.Format format,
+                              TransferCallback callback) {
+        executors.transfer().execute(() -> {
+            ProgressRelay progress = new ProgressRelay(callback);
+            try (ParcelFileDescriptor fd = target;
+                 FileOutputStream out = new FileOutputStream(fd.getFileDescriptor());
+                 FileChannel channel = out.getChannel()) {
+                PerfTrace.begin("Repository.exportHistory");
+                TransferResult result;
+                try {
+                    result = database.runInTransaction(
+                            () -> new HistoryExporter(dao).export(channel, format, progress::report));
+                } finally {
+                    PerfTrace.end();
+                }
+                executors.mainThread().execute(() -> callback.onComplete(result));
+            } catch (IOException | RuntimeException e) {
+                executors.mainThread().execute(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Bulk-insert a CSV history in batches of batchSize rows. Runs on the writer so it
+     * is ordered with every other write. The descriptor is closed when done.
+     */
+    public void importHistory(ParcelFileDescriptor source, int batchSize, TransferCallback callback) {
+        executors.writer().execute(() -> {
+            ProgressRelay progress = new ProgressRelay(callback);
+            try (ParcelFileDescriptor fd = source;
+                 FileInputStream in = new FileInputStream(fd.getFileDescriptor())) {
+                PerfTrace.begin("Repository.importHistory");
+                TransferResult result;
+                try {
+                    result = new HistoryImporter(dao, batchSize)
+                            .importCsv(in, Math.max(0, fd.getStatSize()), progress::report);
+                } finally {
+                    PerfTrace.end();
+                }
+                executors.mainThread().execute(() -> callback.onComplete(result));
+            } catch (IOException | RuntimeException e) {
+                executors.mainThread().execute(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Forwards progress to the main thread at most once per percent.
+     */
+    private class ProgressRelay {
+        private final TransferCallback callback;
+        private long lastPercent = -1;
+
+        ProgressRelay(TransferCallback callback) {
+            this.callback = callback;
+        }
+
+        void report(long done, long total) {
+            long percent = total == 0 ? 100 : done * 100 / total;
+            if (percent != lastPercent) {
+                lastPercent = percent;
+                executors.mainThread().execute(() -> callback.onProgress(done, total));
+            }
+        }
+    }
+
+    private DaySnapshot readDay(int epochDay, int minGoal, int maxGoal) {
+        // Entries and revision are read in one transaction so they describe the same state
+        return database.runInTransaction(() -> {
+            List<CalorieEntry> entries = new ArrayList<>();
+            for (CalorieEntryEntity entity : metrics.time("CalorieEntryDao.getEntriesForDateSync",
+                    () -> dao.getEntriesForDateSync(epochDay))) {
+                entries.add(new CalorieEntry(
+                        entity.getId(),
+                        entity.getName(),
+                        entity.getQuantity(),
+                        entity.getCaloriesPerUnit()
+                ));
+            }
+            DailyTotalEntity summary = metrics.time("DailyTotalDao.getDay", () -> dailyTotalDao.getDay(epochDay));
+            double total = summary != null ? summary.getTotalCalories() : 0;
+            long revision = summary != null ? summary.getRevision() : 0;
+            return new DaySnapshot(epochDay, entries, total, revision, minGoal, maxGoal);
+        });
+    }
+
+    private void invalidateCachedDays() {
+        List<Integer> cachedDays = dayCache.beginInvalidation();
+        if (cachedDays.isEmpty()) {
+            return;
+        }
+        PerfTrace.begin("Repository.invalidateDays");
+        try {
+            Map<Integer, Long> revisions = new HashMap<>();
+            for (DailyTotalEntity day : metrics.time("DailyTotalDao.getDays", () -> dailyTotalDao.getDays(cachedDays))) {
+                revisions.put(day.getEpochDay(), day.getRevision());
+            }
+            dayCache.retainRevisions(cachedDays, revisions);
+        } finally {
+            PerfTrace.end();
+        }
+    }
+
+    // Serialized writes
+
+    public void addEntry(CalorieEntryEntity entity, @Nullable Callback<Long> callback) {
+        write(() -> {
+            long id = metrics.time("CalorieEntryDao.insert", () -> dao.insert(entity));
+            liveDay.onInserted(entity, id);
+            return id;
+        }, callback);
+    }
+
+    /** Add an entry of a catalogued food, addressed by id so its name is not looked up again. */
+    public void addFoodEntry(FoodEntity food, CalorieEntryEntity entity, @Nullable Callback<Long> callback) {
+        write(() -> {
+            long id = metrics.time("CalorieEntryDao.insertForFood", () -> dao.insertForFood(entity, food));
+            liveDay.onInserted(entity, id);
+            return id;
+        }, callback);
+    }
+
+    /**
+     * Log every item of a meal template on {@code date}. The entries are inserted
+     * in one transaction and applied to the live day as one change, so the
+     * day's observers update once per meal.
+     */
+    public void addMeal(long mealId, String date, long timestamp, @Nullable Callback<List<Long>> callback) {
+        write(() -> {
+            List<MealItemWithFood> items = metrics.time("MealDao.getItems", () -> mealDao.getItems(mealId));
+            List<CalorieEntryEntity> entities = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                MealItemWithFood row = items.get(i);
+                // Consecutive timestamps keep the template's order within the day
+                CalorieEntryEntity entity = new CalorieEntryEntity(date, row.name,
+                        row.item.getQuantity(), row.item.getCaloriesPerUnit(), timestamp + i);
+                entity.setFoodId(row.item.getFoodId());
+                entities.add(entity);
+            }
+            List<Long> ids = metrics.time("CalorieEntryDao.insertForFoods", () -> dao.insertForFoods(entities));
+            liveDay.onInsertedAll(entities, ids);
+            return ids;
+        }, callback);
+    }
+
+    /** Save entries as a meal template, interning their names, in one transaction. */
+    public void saveMeal(String name, List<CalorieEntry> entries, @Nullable Callback<Long> callback) {
+        write(() -> metrics.time("MealDao.saveMeal", () -> database.runInTransaction(() -> {
+            List<MealItemEntity> items = new ArrayList<>(entries.size());
+            for (CalorieEntry entry : entries) {
+                FoodEntity food = dao.internFood(entry.getName());
+                items.add(new MealItemEntity(0, food.getId(), entry.getQuantity(), entry.getCaloriesPerUnit()));
+            }
+            return mealDao.saveMeal(new MealEntity(name.trim()), items);
+        })), callback);
+    }
+
+    public void deleteMeal(long mealId) {
+        write(() -> metrics.time("MealDao.deleteMeal", () -> mealDao.deleteMeal(mealId)), null);
+    }
+
+    public void updateEntry(long id, String name, double quantity, double caloriesPerUnit) {
+        write(() -> {
+            FoodEntity food = metrics.time("CalorieEntryDao.updateById", () -> dao.updateById(id, name, quantity, caloriesPerUnit));
+            if (food != null) {
+                liveDay.onUpdated(id, food.getName(), quantity, caloriesPerUnit);
+            }
+            return food;
+        }, null);
+    }
+
+    public void deleteEntry(long id) {
+        write(() -> {
+            int rows = metrics.time("CalorieEntryDao.deleteById", () -> dao.deleteById(id));
+            if (rows > 0) {
+                liveDay.onDeleted(id);
+            }
+            return rows;
+        }, null);
+    }
+
+    private <T> void write(Supplier<T> work, @Nullable Callback<T> callback) {
+        executors.writer().execute(() -> {
+            T result;
+            PerfTrace.begin("Repository.write");
+            try {
+                result = work.get();
+            } finally {
+                PerfTrace.end();
+            }
+            if (callback != null) {
+                executors.mainThread().execute(() -> callback.onResult(result));
+            }
+        });
+    }
+}
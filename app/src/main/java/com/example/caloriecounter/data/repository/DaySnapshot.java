@@ -0,0 +1,72 @@
+package com.example.caloriecounter.data.repository;
+
+import com.example.caloriecounter.data.models.CalorieEntry;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of one day: its entries in timestamp order, their total and
+ * the goal status for the goal range it was evaluated against. The revision is
+ * the daily_totals revision the snapshot was read at.
+ */
+public class DaySnapshot {
+    private final int epochDay;
+    private final List<CalorieEntry> entries;
+    private final double totalCalories;
+    private final long revision;
+    private final int minGoal;
+    private final int maxGoal;
+
+    public DaySnapshot(int epochDay, List<CalorieEntry> entries, double totalCalories,
+                       long revision, int minGoal, int maxGoal) {
+        this.epochDay = epochDay;
+        this.entries = Collections.unmodifiableList(entries);
+        this.totalCalories = totalCalories;
+        this.revision = revision;
+        this.minGoal = minGoal;
+        this.maxGoal = maxGoal;
+    }
+
+    /**
+     * Re-evaluate the goal status against another goal range without re-reading the day.
+     */
+    public DaySnapshot withGoals(int minGoal, int maxGoal) {
+        if (minGoal == this.minGoal && maxGoal == this.maxGoal) {
+            return this;
+        }
+        return new DaySnapshot(epochDay, entries, totalCalories, revision, minGoal, maxGoal);
+    }
+
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    public List<CalorieEntry> getEntries() {
+        return entries;
+    }
+
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public int getMinGoal() {
+        return minGoal;
+    }
+
+    public int getMaxGoal() {
+        return maxGoal;
+    }
+
+    public boolean hasGoal() {
+        return minGoal > 0 && maxGoal > 0;
+    }
+
+    public boolean isGoalMet() {
+        return hasGoal() && totalCalories >= minGoal && totalCalories <= maxGoal;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.caloriecounter.data.repository;
+
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU cache of {@link DaySnapshot}s keyed by epoch day.
+ *
+ * Entries are evicted by {@link #retainRevisions(List, Map)} when the daily_totals
+ * revision of their day moved on. A generation counter, bumped before every
+ * invalidation pass, stops a read that started before a write from publishing
+ * its stale snapshot after the invalidation already ran.
+ */
+public class DaySummaryCache {
+
+    private final LruCache<Integer, DaySnapshot> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DaySummaryCache(int maxDays) {
+        cache = new LruCache<>(maxDays);
+    }
+
+    public DaySnapshot get(int epochDay) {
+        DaySnapshot snapshot = cache.get(epochDay);
+        if (snapshot != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the generation to pass to {@link #putIfCurrent} once the read completes
+     */
+    public long beginRead() {
+        return generation.get();
+    }
+
+    public void putIfCurrent(long readGeneration, DaySnapshot snapshot) {
+        synchronized (generation) {
+            if (generation.get() == readGeneration) {
+                cache.put(snapshot.getEpochDay(), snapshot);
+            }
+        }
+    }
+
+    /**
+     * Start an invalidation pass.
+     * @return the days currently cached, whose revisions should be checked
+     */
+    public List<Integer> beginInvalidation() {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            return new ArrayList<>(cache.snapshot().keySet());
+        }
+    }
+
+    /**
+     * Drop every checked day whose revision differs from the current one.
+     * @param checkedDays the days returned by {@link #beginInvalidation()}
+     * @param currentRevisions revision per epoch day; days missing from the map have no summary row
+     */
+    public void retainRevisions(List<Integer> checkedDays, Map<Integer, Long> currentRevisions) {
+        for (Integer epochDay : checkedDays) {
+            DaySnapshot snapshot = cache.get(epochDay);
+            if (snapshot == null) {
+                continue;
+            }
+            Long revision = currentRevisions.get(epochDay);
+            if (revision == null || revision != snapshot.getRevision()) {
+                cache.remove(epochDay);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            cache.evictAll();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getInvalidationCount() {
+        return evictions.get();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public String describe() {
+        long h = hits.get();
+        long m = misses.get();
+        return String.format(Locale.US, "day cache: %d/%d days, %d hits, %d misses (%.0f%% hit rate), %d invalidated",
+                cache.size(), cache.maxSize(), h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), evictions.get());
+    }
+}
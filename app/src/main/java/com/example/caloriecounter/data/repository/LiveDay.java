@@ -0,0 +1,229 @@
+package com.example.caloriecounter.data.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.caloriecounter.data.database.AppDatabase;
+import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.data.database.DailyTotalDao;
+import com.example.caloriecounter.data.database.DailyTotalEntity;
+import com.example.caloriecounter.data.database.QueryMetrics;
+import com.example.caloriecounter.data.models.CalorieEntry;
+import com.example.caloriecounter.utils.PerfTrace;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incrementally maintained state of the tracked day, normally today. The
+ * repository's own writes are applied as deltas to the entry list and running
+ * total when the day's daily_totals revision moved by exactly one; any other
+ * change reloads the day. Every method runs on the writer thread, so deltas
+ * and reloads are ordered with the writes that cause them.
+ */
+class LiveDay {
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final AppDatabase database;
+    private final CalorieEntryDao dao;
+    private final DailyTotalDao dailyTotalDao;
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private final MutableLiveData<DaySnapshot> state = new MutableLiveData<>();
+
+    private int epochDay = NONE;
+    // Insertion order is timestamp order, matching getEntriesForDateSync
+    private final Map<Long, CalorieEntry> entries = new LinkedHashMap<>();
+    private long lastTimestamp;
+    private double total;
+    private long revision;
+    private DaySnapshot current;
+
+    private long deltas;
+    private long reloads;
+
+    LiveDay(AppDatabase database) {
+        this.database = database;
+        this.dao = database.calorieEntryDao();
+        this.dailyTotalDao = database.dailyTotalDao();
+    }
+
+    LiveData<DaySnapshot> getState() {
+        return state;
+    }
+
+    int getEpochDay() {
+        return epochDay;
+    }
+
+    /** The last published state, or null before the first day is tracked. */
+    DaySnapshot getCurrent() {
+        return current;
+    }
+
+    long getDeltas() {
+        return deltas;
+    }
+
+    long getReloads() {
+        return reloads;
+    }
+
+    void track(int day) {
+        if (day != epochDay) {
+            epochDay = day;
+            reload();
+        }
+    }
+
+    void onInserted(CalorieEntryEntity entity, long id) {
+        if (epochDay == NONE || entity.getEpochDay() != epochDay) {
+            return;
+        }
+        // An entry stamped earlier than the newest one belongs mid-list
+        if (entity.getTimestamp() < lastTimestamp || !advanceRevision(1)) {
+            reload();
+            return;
+        }
+        entries.put(id, new CalorieEntry(id, entity.getName(), entity.getQuantity(), entity.getCaloriesPerUnit()));
+        lastTimestamp = entity.getTimestamp();
+        total += entity.getTotalCalories();
+        publishDelta();
+    }
+
+    /**
+     * Entries inserted in one transaction, such as a meal, applied as a single
+     * delta and published once. Each row moved the day's revision by one.
+     */
+    void onInsertedAll(List<CalorieEntryEntity> batch, List<Long> ids) {
+        if (epochDay == NONE) {
+            return;
+        }
+        int count = 0;
+        boolean ordered = true;
+        long last = lastTimestamp;
+        for (CalorieEntryEntity entity : batch) {
+            if (entity.getEpochDay() == epochDay) {
+                count++;
+                ordered &= entity.getTimestamp() >= last;
+                last = entity.getTimestamp();
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        if (!ordered || !advanceRevision(count)) {
+            reload();
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            CalorieEntryEntity entity = batch.get(i);
+            if (entity.getEpochDay() == epochDay) {
+                long id = ids.get(i);
+                entries.put(id, new CalorieEntry(id, entity.getName(), entity.getQuantity(),
+                        entity.getCaloriesPerUnit()));
+                total += entity.getTotalCalories();
+            }
+        }
+        lastTimestamp = last;
+        publishDelta();
+    }
+
+    void onUpdated(long id, String name, double quantity, double caloriesPerUnit) {
+        CalorieEntry old = entries.get(id);
+        if (old == null) {
+            return;
+        }
+        if (!advanceRevision(1)) {
+            reload();
+            return;
+        }
+        // Replacing an existing key keeps its position
+        CalorieEntry updated = new CalorieEntry(id, name, quantity, caloriesPerUnit);
+        entries.put(id, updated);
+        total += updated.getTotalCalories() - old.getTotalCalories();
+        publishDelta();
+    }
+
+    void onDeleted(long id) {
+        CalorieEntry old = entries.remove(id);
+        if (old == null) {
+            return;
+        }
+        if (!advanceRevision(1)) {
+            reload();
+            return;
+        }
+        total -= old.getTotalCalories();
+        publishDelta();
+    }
+
+    /**
+     * Reloads the day only if something other than this model's own deltas
+     * changed it since, e.g. an import or a write from another path.
+     */
+    void verify() {
+        if (epochDay != NONE && currentRevision() != revision) {
+            reload();
+        }
+    }
+
+    String describe() {
+        return String.format(Locale.US, "live day %d: %d entries, %d deltas, %d reloads",
+                epochDay, entries.size(), deltas, reloads);
+    }
+
+    private boolean advanceRevision(int writes) {
+        long current = currentRevision();
+        if (current != revision + writes) {
+            return false;
+        }
+        revision = current;
+        return true;
+    }
+
+    private long currentRevision() {
+        DailyTotalEntity summary = metrics.time("DailyTotalDao.getDay", () -> dailyTotalDao.getDay(epochDay));
+        return summary != null ? summary.getRevision() : 0;
+    }
+
+    private void reload() {
+        PerfTrace.begin("LiveDay.reload");
+        try {
+            database.runInTransaction(() -> {
+                entries.clear();
+                total = 0;
+                lastTimestamp = Long.MIN_VALUE;
+                for (CalorieEntryEntity entity : metrics.time("CalorieEntryDao.getEntriesForDateSync",
+                        () -> dao.getEntriesForDateSync(epochDay))) {
+                    entries.put(entity.getId(), new CalorieEntry(
+                            entity.getId(),
+                            entity.getName(),
+                            entity.getQuantity(),
+                            entity.getCaloriesPerUnit()
+                    ));
+                    total += entity.getTotalCalories();
+                    lastTimestamp = entity.getTimestamp();
+                }
+                revision = currentRevision();
+            });
+        } finally {
+            PerfTrace.end();
+        }
+        reloads++;
+        publish();
+    }
+
+    private void publishDelta() {
+        deltas++;
+        publish();
+    }
+
+    private void publish() {
+        current = new DaySnapshot(epochDay, new ArrayList<>(entries.values()), total, revision, 0, 0);
+        state.postValue(current);
+    }
+}
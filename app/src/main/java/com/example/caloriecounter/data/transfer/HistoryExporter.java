@@ -0,0 +1,225 @@
+package com.example.caloriecounter.data.transfer;
+
+import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.data.database.QueryMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the whole calorie_entries history to a channel as CSV or JSON.
+ *
+ * Rows are read in keyset pages of {@link #PAGE_SIZE} and encoded through one
+ * reusable char and byte buffer, so heap usage stays flat regardless of how
+ * many rows the history holds.
+ */
+public class HistoryExporter {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        JSON("application/json", "json");
+
+        public final String mimeType;
+        public final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    public static final String CSV_HEADER = "date,name,quantity,caloriesPerUnit,timestamp";
+
+    static final int PAGE_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CalorieEntryDao dao;
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE * 2);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder row = new StringBuilder(256);
+    private WritableByteChannel channel;
+    private long bytesWritten;
+
+    public HistoryExporter(CalorieEntryDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Write every entry to the channel. The channel is not closed.
+     * @return statistics for the finished export
+     */
+    public TransferResult export(WritableByteChannel out, Format format, ProgressListener listener)
+            throws IOException {
+        long start = System.nanoTime();
+        channel = out;
+        bytesWritten = 0;
+        chars.clear();
+        bytes.clear();
+        encoder.reset();
+
+        long totalRows = metrics.time("CalorieEntryDao.getEntryCount", dao::getEntryCount);
+        long rowsWritten = 0;
+        append(format == Format.CSV ? CSV_HEADER + "\n" : "[\n");
+
+        int lastDay = Integer.MIN_VALUE;
+        long lastTimestamp = Long.MIN_VALUE;
+        long lastId = Long.MIN_VALUE;
+        List<CalorieEntryEntity> page;
+        do {
+            int afterDay = lastDay;
+            long afterTimestamp = lastTimestamp;
+            long afterId = lastId;
+            page = metrics.time("CalorieEntryDao.getEntriesAfter",
+                    () -> dao.getEntriesAfter(afterDay, afterTimestamp, afterId, PAGE_SIZE));
+            for (CalorieEntryEntity entry : page) {
+                row.setLength(0);
+                if (format == Format.CSV) {
+                    appendCsvRow(entry);
+                } else {
+                    appendJsonRow(entry, rowsWritten == 0);
+                }
+                append(row);
+                rowsWritten++;
+            }
+            if (!page.isEmpty()) {
+                CalorieEntryEntity last = page.get(page.size() - 1);
+                lastDay = last.getEpochDay();
+                lastTimestamp = last.getTimestamp();
+                lastId = last.getId();
+            }
+            if (listener != null) {
+                listener.onProgress(rowsWritten, Math.max(totalRows, rowsWritten));
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        if (format == Format.JSON) {
+            append(rowsWritten == 0 ? "]\n" : "\n]\n");
+        }
+        flush(true);
+        channel = null;
+        return new TransferResult(rowsWritten, 0, bytesWritten, System.nanoTime() - start);
+    }
+
+    private void appendCsvRow(CalorieEntryEntity entry) {
+        row.append(entry.getDate()).append(',');
+        appendCsvField(entry.getName());
+        row.append(',').append(formatNumber(entry.getQuantity()))
+                .append(',').append(formatNumber(entry.getCaloriesPerUnit()))
+                .append(',').append(entry.getTimestamp())
+                .append('\n');
+    }
+
+    private void appendCsvField(String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    private void appendJsonRow(CalorieEntryEntity entry, boolean first) {
+        if (!first) {
+            row.append(",\n");
+        }
+        row.append("  {\"date\":\"").append(entry.getDate())
+                .append("\",\"name\":");
+        appendJsonString(entry.getName());
+        row.append(",\"quantity\":").append(formatNumber(entry.getQuantity()))
+                .append(",\"caloriesPerUnit\":").append(formatNumber(entry.getCaloriesPerUnit()))
+                .append(",\"timestamp\":").append(entry.getTimestamp())
+                .append('}');
+    }
+
+    private void appendJsonString(String value) {
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': row.append("\\\""); break;
+                case '\\': row.append("\\\\"); break;
+                case '\n': row.append("\\n"); break;
+                case '\r': row.append("\\r"); break;
+                case '\t': row.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        row.append(String.format(Locale.US, "\\u%04x", (int) c));
+                    } else {
+                        row.append(c);
+                    }
+            }
+        }
+        row.append('"');
+    }
+
+    private static String formatNumber(double value) {
+        // Locale-independent so the file can be imported on any device
+        if (value == (long) value) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private void append(CharSequence text) throws IOException {
+        int offset = 0;
+        while (offset < text.length()) {
+            int n = Math.min(chars.remaining(), text.length() - offset);
+            for (int i = 0; i < n; i++) {
+                chars.put(text.charAt(offset + i));
+            }
+            offset += n;
+            if (!chars.hasRemaining()) {
+                flush(false);
+            }
+        }
+    }
+
+    private void flush(boolean endOfInput) throws IOException {
+        chars.flip();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            drainBytes();
+        } while (result.isOverflow());
+        if (endOfInput) {
+            encoder.flush(bytes);
+            drainBytes();
+        }
+        // Keep an unpaired high surrogate for the next round
+        chars.compact();
+    }
+
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            bytesWritten += channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.caloriecounter.data.transfer;
+
+import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.data.database.QueryMetrics;
+import com.example.caloriecounter.data.models.EntryValidator;
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a CSV history into calorie_entries in batched transactions.
+ *
+ * The file is parsed one record at a time and rows are inserted through
+ * {@link CalorieEntryDao#insertAll(List)}, one transaction per batch. The
+ * daily_totals triggers run inside the same transactions, so summaries stay
+ * consistent even if the import is interrupted between batches.
+ *
+ * The expected columns are those written by {@link HistoryExporter}:
+ * date, name, quantity, caloriesPerUnit and an optional timestamp. A quote
+ * opens a quoted field only as the field's first character; a quoted field
+ * may span up to {@link #MAX_RECORD_LINES} lines, and a record still open
+ * after that, or at the end of the file, is rejected at its first line and
+ * the lines after it are read again as records of their own.
+ */
+public class HistoryImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    static final int MAX_RECORD_LINES = 20;
+    private static final int MAX_REPORTED_LINES = 100;
+
+    private final CalorieEntryDao dao;
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private final int batchSize;
+    private final List<String> fields = new ArrayList<>(5);
+    private final StringBuilder field = new StringBuilder(64);
+    private final List<String> continuation = new ArrayList<>(MAX_RECORD_LINES);
+    private final ArrayDeque<String> pushedBack = new ArrayDeque<>();
+    private boolean quoted;
+    private boolean fieldStart;
+
+    public HistoryImporter(CalorieEntryDao dao, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.dao = dao;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param in the CSV stream; not closed
+     * @param totalBytes the stream length for progress reporting, or 0 if unknown
+     */
+    public TransferResult importCsv(InputStream in, long totalBytes,
+                                    HistoryExporter.ProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+        CountingInputStream counting = new CountingInputStream(in);
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(counting, StandardCharsets.UTF_8), 64 * 1024);
+
+        List<CalorieEntryEntity> batch = new ArrayList<>(batchSize);
+        List<Long> rejectedLines = new ArrayList<>();
+        long imported = 0;
+        long rejected = 0;
+        long lineNumber = 0;
+
+        String line;
+        while ((line = nextLine(reader)) != null) {
+            lineNumber++;
+            long recordLine = lineNumber;
+            // A quoted name may span several physical lines, each parsed once
+            startRecord();
+            boolean complete = parseLine(line);
+            continuation.clear();
+            while (!complete && continuation.size() < MAX_RECORD_LINES - 1) {
+                String next = nextLine(reader);
+                if (next == null) {
+                    break;
+                }
+                lineNumber++;
+                continuation.add(next);
+                field.append('\n');
+                complete = parseLine(next);
+            }
+
+            CalorieEntryEntity entity;
+            if (complete) {
+                if (recordLine == 1 && isHeader()) {
+                    continue;
+                }
+                if (fields.size() == 1 && fields.get(0).trim().isEmpty()) {
+                    continue;
+                }
+                entity = toEntity(recordLine);
+            } else {
+                // An unterminated quote: only its own line is lost
+                entity = null;
+                for (int i = continuation.size() - 1; i >= 0; i--) {
+                    pushedBack.push(continuation.get(i));
+                }
+                lineNumber = recordLine;
+            }
+            if (entity == null) {
+                rejected++;
+                if (rejectedLines.size() < MAX_REPORTED_LINES) {
+                    rejectedLines.add(recordLine);
+                }
+                continue;
+            }
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                insertBatch(batch);
+                imported += batch.size();
+                batch.clear();
+                if (listener != null) {
+                    listener.onProgress(counting.count, totalBytes);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch);
+            imported += batch.size();
+        }
+        if (listener != null) {
+            listener.onProgress(counting.count, Math.max(totalBytes, counting.count));
+        }
+        return new TransferResult(imported, rejected, counting.count, System.nanoTime() - start, rejectedLines);
+    }
+
+    private void insertBatch(List<CalorieEntryEntity> batch) {
+        metrics.time("CalorieEntryDao.insertAll", () -> {
+            dao.insertAll(batch);
+            return null;
+        });
+    }
+
+    private String nextLine(BufferedReader reader) throws IOException {
+        return pushedBack.isEmpty() ? reader.readLine() : pushedBack.pop();
+    }
+
+    private boolean isHeader() {
+        return !fields.isEmpty() && fields.get(0).trim().equalsIgnoreCase("date");
+    }
+
+    private CalorieEntryEntity toEntity(long lineNumber) {
+        if (fields.size() < 4 || fields.size() > 5) {
+            return null;
+        }
+        try {
+            // Stored in the canonical form, whatever digits the file used
+            String date = DayKeyCodec.format(DayKeyCodec.parse(fields.get(0).trim()));
+            String name = fields.get(1).trim();
+            double quantity = Double.parseDouble(fields.get(2).trim());
+            double caloriesPerUnit = Double.parseDouble(fields.get(3).trim());
+            if (EntryValidator.validate(name, quantity, caloriesPerUnit) != EntryValidator.Result.VALID) {
+                return null;
+            }
+            // Without a timestamp column the file order is kept within each day
+            long timestamp = fields.size() == 5 ? Long.parseLong(fields.get(4).trim()) : lineNumber;
+            return new CalorieEntryEntity(date, name, quantity, caloriesPerUnit, timestamp);
+        } catch (IllegalArgumentException e) {
+            // Covers NumberFormatException and malformed dates
+            return null;
+        }
+    }
+
+    private void startRecord() {
+        fields.clear();
+        field.setLength(0);
+        quoted = false;
+        fieldStart = true;
+    }
+
+    /**
+     * Continue the current record with one physical line, splitting it into
+     * {@link #fields}.
+     * @return false if the line ends inside a quoted field and the record continues on the next line
+     */
+    private boolean parseLine(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c != '\r') {
+                // A quote inside an unquoted field, as in 5" pizza, is kept as typed
+                field.append(c);
+                fieldStart = false;
+            }
+        }
+        if (quoted) {
+            return false;
+        }
+        fields.add(field.toString());
+        return true;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.caloriecounter.data.transfer;
+
+/**
+ * Main-thread callbacks for a running export or import.
+ */
+public interface TransferCallback {
+    /**
+     * @param done rows (export) or bytes (import) processed so far
+     * @param total the expected final value of done, or 0 if unknown
+     */
+    void onProgress(long done, long total);
+
+    void onComplete(TransferResult result);
+
+    void onError(Exception error);
+}
@@ -0,0 +1,60 @@
+package com.example.caloriecounter.data.transfer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of an export or import run.
+ */
+public class TransferResult {
+    private final long rows;
+    private final long rejectedRows;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final List<Long> rejectedLines;
+
+    public TransferResult(long rows, long rejectedRows, long bytes, long elapsedNanos) {
+        this(rows, rejectedRows, bytes, elapsedNanos, Collections.emptyList());
+    }
+
+    public TransferResult(long rows, long rejectedRows, long bytes, long elapsedNanos, List<Long> rejectedLines) {
+        this.rows = rows;
+        this.rejectedRows = rejectedRows;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.rejectedLines = Collections.unmodifiableList(rejectedLines);
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * @return line numbers of the first rejected rows, capped by the importer
+     */
+    public List<Long> getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    public String describe() {
+        return String.format(Locale.getDefault(), "%d rows in %.1f s (%.0f rows/s)",
+                rows, elapsedNanos / 1e9, getRowsPerSecond());
+    }
+}
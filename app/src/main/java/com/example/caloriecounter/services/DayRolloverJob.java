@@ -0,0 +1,84 @@
+package com.example.caloriecounter.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.caloriecounter.data.repository.CalorieRepository;
+import com.example.caloriecounter.data.repository.DaySnapshot;
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+/**
+ * Closes the days that ended since the job last ran: records the final total
+ * and goal status of the latest, moves the live "today" model to the new day
+ * and pre-warms the new day in the day cache, so the first screen after
+ * midnight neither shows yesterday nor waits on a query.
+ */
+public final class DayRolloverJob {
+
+    private static final String TAG = "DayRolloverJob";
+    // A device that slept longer than this only closes the most recent days
+    private static final int MAX_CLOSED_DAYS = 31;
+
+    static final String PREFS = "AppState";
+    static final String KEY_LAST_RESET_DATE = "last_reset_date";
+    public static final String KEY_CLOSED_DAY = "closed_day";
+    public static final String KEY_CLOSED_TOTAL = "closed_total";
+    public static final String KEY_CLOSED_GOAL_MET = "closed_goal_met";
+
+    private DayRolloverJob() {
+    }
+
+    /**
+     * Moves the live day to today and, if the date moved forward since the job
+     * last ran, closes the days in between. A clock set back to an earlier day
+     * closes nothing but still tracks the new today, and pulls the stored
+     * reset date back so the days after it are closed again once reached.
+     * @param onDone called on the main thread when the job finished or was not needed
+     */
+    public static void run(Context context, Runnable onDone) {
+        Context appContext = context.getApplicationContext();
+        DayKeyCodec.invalidateToday();
+
+        SharedPreferences state = appContext.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        int newDay = DayKeyCodec.today();
+        int lastReset = lastResetDay(state, newDay);
+        if (newDay <= lastReset) {
+            CalorieRepository.getInstance(appContext).trackDay(newDay);
+            if (newDay < lastReset) {
+                state.edit().putString(KEY_LAST_RESET_DATE, DayKeyCodec.format(newDay)).apply();
+            }
+            onDone.run();
+            return;
+        }
+
+        SharedPreferences goals = appContext.getSharedPreferences("CalorieGoals", Context.MODE_PRIVATE);
+        int minGoal = goals.getInt("min_goal", 0);
+        int maxGoal = goals.getInt("max_goal", 0);
+        int firstClosed = Math.max(lastReset, newDay - MAX_CLOSED_DAYS);
+
+        CalorieRepository.getInstance(appContext).rollOver(firstClosed, newDay, minGoal, maxGoal, closedDays -> {
+            for (DaySnapshot closed : closedDays) {
+                Log.i(TAG, "Closed " + DayKeyCodec.format(closed.getEpochDay()) + ": "
+                        + closed.getTotalCalories() + " kcal, goal met " + closed.isGoalMet());
+            }
+            DaySnapshot latest = closedDays.get(closedDays.size() - 1);
+            state.edit()
+                    .putString(KEY_LAST_RESET_DATE, DayKeyCodec.format(newDay))
+                    .putInt(KEY_CLOSED_DAY, latest.getEpochDay())
+                    .putFloat(KEY_CLOSED_TOTAL, (float) latest.getTotalCalories())
+                    .putBoolean(KEY_CLOSED_GOAL_MET, latest.isGoalMet())
+                    .apply();
+            onDone.run();
+        });
+    }
+
+    /** The day the job last ran for; yesterday on first run or if the stored date does not parse. */
+    private static int lastResetDay(SharedPreferences state, int today) {
+        try {
+            return DayKeyCodec.parse(state.getString(KEY_LAST_RESET_DATE, null));
+        } catch (IllegalArgumentException e) {
+            return today - 1;
+        }
+    }
+}
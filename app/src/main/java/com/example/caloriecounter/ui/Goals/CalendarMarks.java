@@ -0,0 +1,71 @@
+package com.example.caloriecounter.ui.Goals;
+
+import android.util.SparseLongArray;
+
+import com.example.caloriecounter.data.database.DailyTotal;
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+import java.util.List;
+
+/**
+ * Immutable per-month calendar markers. Each month is one long keyed by
+ * year * 12 + month: bit (day - 1) is set when the day has entries and bit
+ * (day + 31) when that day's total met the goal range. Build it off the main
+ * thread and hand the finished instance to the view.
+ */
+public final class CalendarMarks {
+
+    public static final CalendarMarks EMPTY = new CalendarMarks(new SparseLongArray(0));
+
+    private static final int GOAL_SHIFT = 32;
+
+    private final SparseLongArray months;
+
+    private CalendarMarks(SparseLongArray months) {
+        this.months = months;
+    }
+
+    public static CalendarMarks build(List<DailyTotal> totals, int minGoal, int maxGoal) {
+        SparseLongArray months = new SparseLongArray();
+        boolean hasGoal = minGoal > 0 && maxGoal > 0;
+        for (DailyTotal total : totals) {
+            int packed = DayKeyCodec.toPackedDate(total.getEpochDay());
+            int key = monthKey(DayKeyCodec.yearOf(packed), DayKeyCodec.monthOf(packed));
+            int bit = DayKeyCodec.dayOf(packed) - 1;
+            long bits = months.get(key) | 1L << bit;
+            if (hasGoal && total.getTotal() >= minGoal && total.getTotal() <= maxGoal) {
+                bits |= 1L << (bit + GOAL_SHIFT);
+            }
+            // Totals arrive in epochDay order, so this appends rather than inserts
+            months.put(key, bits);
+        }
+        return new CalendarMarks(months);
+    }
+
+    /** Markers for one month (0-based), or 0 when it has no entries. */
+    public long monthBits(int year, int month) {
+        return months.get(monthKey(year, month));
+    }
+
+    public boolean hasEntries(int epochDay) {
+        int packed = DayKeyCodec.toPackedDate(epochDay);
+        return hasEntries(monthBits(DayKeyCodec.yearOf(packed), DayKeyCodec.monthOf(packed)),
+                DayKeyCodec.dayOf(packed));
+    }
+
+    public int monthCount() {
+        return months.size();
+    }
+
+    public static boolean hasEntries(long monthBits, int dayOfMonth) {
+        return (monthBits & 1L << (dayOfMonth - 1)) != 0;
+    }
+
+    public static boolean metGoal(long monthBits, int dayOfMonth) {
+        return (monthBits & 1L << (dayOfMonth - 1 + GOAL_SHIFT)) != 0;
+    }
+
+    private static int monthKey(int year, int month) {
+        return year * 12 + month;
+    }
+}
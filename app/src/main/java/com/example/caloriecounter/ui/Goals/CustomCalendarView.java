@@ -11,11 +11,11 @@ import android.view.View;
 
 import androidx.annotation.Nullable;
 
-import java.text.SimpleDateFormat;
+import com.example.caloriecounter.utils.DayKeyCodec;
+import com.example.caloriecounter.utils.PerfTrace;
+
 import java.util.Calendar;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 
 public class CustomCalendarView extends View {
     private Paint textPaint;
@@ -24,22 +24,22 @@ public class CustomCalendarView extends View {
     private Paint headerPaint;
     private Paint dayNamePaint;
 
-    private Calendar calendar;
-    private Calendar today;
     private int displayMonth;
     private int displayYear;
+    private MonthLayout layout;
+    private MonthLayout precomputedLayout;
 
-    private float cellWidth;
-    private float cellHeight;
     private float monthHeaderHeight;
     private float dayNameHeight;
 
-    private Set<String> datesWithEntries;
-    private Map<String, Boolean> goalStatusMap;
+    private CalendarMarks marks = CalendarMarks.EMPTY;
 
     private OnDateClickListener dateClickListener;
     private GestureDetector gestureDetector;
 
+    static final float MONTH_HEADER_HEIGHT = 100f;
+    static final float DAY_NAME_HEIGHT = 80f;
+
     private static final String[] DAYS = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
 
     public interface OnDateClickListener {
@@ -85,13 +85,12 @@ public class CustomCalendarView extends View {
         dayNamePaint.setTextSize(36f);
         dayNamePaint.setTextAlign(Paint.Align.CENTER);
 
-        calendar = Calendar.getInstance();
-        today = Calendar.getInstance();
+        Calendar calendar = Calendar.getInstance();
         displayMonth = calendar.get(Calendar.MONTH);
         displayYear = calendar.get(Calendar.YEAR);
 
-        monthHeaderHeight = 100f;
-        dayNameHeight = 80f;
+        monthHeaderHeight = MONTH_HEADER_HEIGHT;
+        dayNameHeight = DAY_NAME_HEIGHT;
 
         gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
             @Override
@@ -107,13 +106,9 @@ public class CustomCalendarView extends View {
         });
     }
 
-    public void setDatesWithEntries(Set<String> dates) {
-        this.datesWithEntries = dates;
-        invalidate();
-    }
-
-    public void setGoalStatusMap(Map<String, Boolean> statusMap) {
-        this.goalStatusMap = statusMap;
+    /** Replaces the entry and goal markers; call on the main thread with a finished instance. */
+    public void setMarks(CalendarMarks marks) {
+        this.marks = marks != null ? marks : CalendarMarks.EMPTY;
         invalidate();
     }
 
@@ -127,6 +122,7 @@ public class CustomCalendarView extends View {
             displayMonth = 0;
             displayYear++;
         }
+        updateLayout();
         invalidate();
     }
 
@@ -136,82 +132,99 @@ public class CustomCalendarView extends View {
             displayMonth = 11;
             displayYear--;
         }
+        updateLayout();
         invalidate();
     }
 
     public void setMonth(int month, int year) {
+        setMonth(month, year, null);
+    }
+
+    /**
+     * Shows a month, adopting a layout built ahead of time on a background
+     * thread when it matches this view's size.
+     */
+    void setMonth(int month, int year, @Nullable MonthLayout precomputed) {
         displayMonth = month;
         displayYear = year;
+        precomputedLayout = precomputed;
+        if (getWidth() > 0) {
+            updateLayout();
+        }
         invalidate();
     }
 
+    static MonthLayout buildLayout(int year, int month, int todayEpochDay, int width, int height) {
+        return new MonthLayout(year, month, todayEpochDay, width, height,
+                MONTH_HEADER_HEIGHT, DAY_NAME_HEIGHT, Locale.getDefault());
+    }
+
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
-        cellWidth = w / 7f;
-        // 6 rows for dates
-        cellHeight = (h - monthHeaderHeight - dayNameHeight) / 6f;
+        updateLayout();
+    }
+
+    /** Rebuilds the month layout if the month, size or current day changed. */
+    private MonthLayout updateLayout() {
+        int today = DayKeyCodec.today();
+        if (layout == null || !layout.matches(displayYear, displayMonth, today, getWidth(), getHeight())) {
+            if (precomputedLayout != null
+                    && precomputedLayout.matches(displayYear, displayMonth, today, getWidth(), getHeight())) {
+                layout = precomputedLayout;
+            } else {
+                layout = new MonthLayout(displayYear, displayMonth, today, getWidth(), getHeight(),
+                        monthHeaderHeight, dayNameHeight, Locale.getDefault());
+            }
+        }
+        return layout;
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        PerfTrace.begin("CalendarView.onDraw");
+        try {
+            drawMonth(canvas);
+        } finally {
+            PerfTrace.end();
+        }
+    }
+
+    private void drawMonth(Canvas canvas) {
+        // Only allocates on the first frame after midnight
+        MonthLayout layout = updateLayout();
 
         // Draw month/year header
-        String monthYear = new SimpleDateFormat("MMMM yyyy", Locale.getDefault())
-                .format(getCalendarForMonth().getTime());
-        canvas.drawText(monthYear, getWidth() / 2f, 70f, headerPaint);
+        canvas.drawText(layout.title, getWidth() / 2f, 70f, headerPaint);
 
         // Draw day names
         float dayNameY = monthHeaderHeight + 55f;
         for (int i = 0; i < 7; i++) {
-            float x = i * cellWidth + cellWidth / 2f;
+            float x = i * layout.cellWidth + layout.cellWidth / 2f;
             canvas.drawText(DAYS[i], x, dayNameY, dayNamePaint);
         }
 
         // Draw dates
-        Calendar cal = getCalendarForMonth();
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        int firstDayOfWeek = cal.get(Calendar.DAY_OF_WEEK) - 1;
-        int daysInMonth = cal.getActualMaximum(Calendar.DAY_OF_MONTH);
-
-        int row = 0;
-        int col = firstDayOfWeek;
-
-        for (int day = 1; day <= daysInMonth; day++) {
-            float x = col * cellWidth + cellWidth / 2f;
-            float y = monthHeaderHeight + dayNameHeight + row * cellHeight + cellHeight / 2f;
-
-            String dateStr = formatDate(displayYear, displayMonth, day);
-            boolean isToday = isSameDay(displayYear, displayMonth, day,
-                    today.get(Calendar.YEAR), today.get(Calendar.MONTH), today.get(Calendar.DAY_OF_MONTH));
-            boolean isPast = isPastDate(displayYear, displayMonth, day);
+        long monthBits = marks.monthBits(layout.year, layout.month);
+        for (int i = 0; i < layout.daysInMonth; i++) {
+            float x = layout.cellX[i];
+            float y = layout.cellY[i];
 
             // Draw background circle for days with entries
-            if (datesWithEntries != null && datesWithEntries.contains(dateStr) && isPast) {
-                Boolean metGoal = goalStatusMap != null ? goalStatusMap.get(dateStr) : null;
-                if (metGoal != null) {
-                    circlePaint.setColor(metGoal ? Color.GREEN : Color.RED);
-                    circlePaint.setAlpha(100);
-                    float radius = Math.min(cellWidth, cellHeight) / 3.5f;
-                    canvas.drawCircle(x, y, radius, circlePaint);
-                }
+            if (layout.past[i] && CalendarMarks.hasEntries(monthBits, i + 1)) {
+                circlePaint.setColor(CalendarMarks.metGoal(monthBits, i + 1) ? Color.GREEN : Color.RED);
+                circlePaint.setAlpha(100);
+                canvas.drawCircle(x, y, layout.markerRadius, circlePaint);
             }
 
             // Draw outline for today
-            if (isToday) {
-                float radius = Math.min(cellWidth, cellHeight) / 3.5f;
-                canvas.drawCircle(x, y, radius, outlinePaint);
+            if (i == layout.todayIndex) {
+                canvas.drawCircle(x, y, layout.markerRadius, outlinePaint);
             }
 
             // Draw day number
-            canvas.drawText(String.valueOf(day), x, y + 15f, textPaint);
-
-            col++;
-            if (col == 7) {
-                col = 0;
-                row++;
-            }
+            canvas.drawText(MonthLayout.dayLabel(i), x, y + 15f, textPaint);
         }
     }
 
@@ -221,63 +234,9 @@ public class CustomCalendarView extends View {
     }
 
     private void handleTap(float x, float y) {
-        // Check if tap is in month header area (for future month/year picker)
-        if (y < monthHeaderHeight) {
-            return;
-        }
-
-        // Check if tap is in day names area
-        if (y < monthHeaderHeight + dayNameHeight) {
-            return;
-        }
-
-        int col = (int) (x / cellWidth);
-        int row = (int) ((y - monthHeaderHeight - dayNameHeight) / cellHeight);
-
-        if (row < 0 || col < 0 || col > 6 || row > 5) return;
-
-        Calendar cal = getCalendarForMonth();
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        int firstDayOfWeek = cal.get(Calendar.DAY_OF_WEEK) - 1;
-        int daysInMonth = cal.getActualMaximum(Calendar.DAY_OF_MONTH);
-
-        int dayNumber = row * 7 + col - firstDayOfWeek + 1;
-
-        if (dayNumber > 0 && dayNumber <= daysInMonth && dateClickListener != null) {
+        int dayNumber = updateLayout().dayAt(x, y);
+        if (dayNumber > 0 && dateClickListener != null) {
             dateClickListener.onDateClick(displayYear, displayMonth, dayNumber);
         }
     }
-
-    private Calendar getCalendarForMonth() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.YEAR, displayYear);
-        cal.set(Calendar.MONTH, displayMonth);
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        return cal;
-    }
-
-    private boolean isSameDay(int year1, int month1, int day1, int year2, int month2, int day2) {
-        return year1 == year2 && month1 == month2 && day1 == day2;
-    }
-
-    private boolean isPastDate(int year, int month, int day) {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month);
-        cal.set(Calendar.DAY_OF_MONTH, day);
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-
-        return cal.before(today);
-    }
-
-    private String formatDate(int year, int month, int day) {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month);
-        cal.set(Calendar.DAY_OF_MONTH, day);
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        return sdf.format(cal.getTime());
-    }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.example.caloriecounter.ui.Goals;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Resources;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.view.LayoutInflater;
@@ -17,24 +18,18 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.caloriecounter.R;
-import com.example.caloriecounter.data.database.AppDatabase;
-import com.example.caloriecounter.data.database.CalorieEntryDao;
-import com.example.caloriecounter.data.database.CalorieEntryEntity;
-import com.example.caloriecounter.data.models.CalorieEntry;
+import com.example.caloriecounter.data.repository.CalorieRepository;
 import com.example.caloriecounter.ui.Overview.EntriesAdapter;
+import com.example.caloriecounter.ui.Overview.EntryDisplayModel;
+import com.example.caloriecounter.utils.DateUtils;
 import com.google.android.material.appbar.MaterialToolbar;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class DayDetailFragment extends Fragment {
     private static final String ARG_DATE = "date";
     private String selectedDate;
-    private CalorieEntryDao dao;
-    private ExecutorService executorService;
+    private CalorieRepository repository;
     private RecyclerView recyclerView;
     private EntriesAdapter adapter;
     private TextView tvDateTitle, tvGoalStatus, tvGoalRange, tvTotal;
@@ -54,9 +49,7 @@ public class DayDetailFragment extends Fragment {
         if (getArguments() != null) {
             selectedDate = getArguments().getString(ARG_DATE);
         }
-        AppDatabase database = AppDatabase.getInstance(requireContext());
-        dao = database.calorieEntryDao();
-        executorService = Executors.newSingleThreadExecutor();
+        repository = CalorieRepository.getInstance(requireContext());
     }
 
     @Nullable
@@ -99,58 +92,47 @@ public class DayDetailFragment extends Fragment {
     }
 
     private void loadDayData() {
-        executorService.execute(() -> {
-            List<CalorieEntryEntity> entries = dao.getEntriesForDateSync(selectedDate);
-            double totalCalories = dao.getTotalCaloriesForDate(selectedDate);
-
-            SharedPreferences prefs = requireActivity()
-                    .getSharedPreferences("CalorieGoals", Context.MODE_PRIVATE);
-            int minGoal = prefs.getInt("min_goal", 0);
-            int maxGoal = prefs.getInt("max_goal", 0);
-
-            requireActivity().runOnUiThread(() -> {
-                // Show goal status
-                if (minGoal > 0 && maxGoal > 0) {
-                    boolean metGoal = totalCalories >= minGoal && totalCalories <= maxGoal;
-                    tvGoalStatus.setText(metGoal ? "✓ Goal Met" : "✗ Goal Not Met");
-                    tvGoalStatus.setTextColor(metGoal ? Color.GREEN : Color.RED);
-                    tvGoalStatus.setVisibility(View.VISIBLE);
-
-                    tvGoalRange.setText(String.format(Locale.getDefault(),
-                            "Goal: %d - %d kcal", minGoal, maxGoal));
-
-                    // Set progress bar
-                    progressBar.setMax(maxGoal);
-                    progressBar.setProgress((int) totalCalories, true);
-                } else {
-                    tvGoalStatus.setVisibility(View.GONE);
-                    tvGoalRange.setText("No goal set");
-                    progressBar.setVisibility(View.GONE);
-                }
+        SharedPreferences prefs = requireActivity()
+                .getSharedPreferences("CalorieGoals", Context.MODE_PRIVATE);
+        int minGoal = prefs.getInt("min_goal", 0);
+        int maxGoal = prefs.getInt("max_goal", 0);
+
+        repository.loadDay(DateUtils.toEpochDay(selectedDate), minGoal, maxGoal, snapshot -> {
+            if (getView() == null) {
+                return;
+            }
+            double totalCalories = snapshot.getTotalCalories();
+
+            // Show goal status
+            if (snapshot.hasGoal()) {
+                boolean metGoal = snapshot.isGoalMet();
+                tvGoalStatus.setText(metGoal ? "✓ Goal Met" : "✗ Goal Not Met");
+                tvGoalStatus.setTextColor(metGoal ? Color.GREEN : Color.RED);
+                tvGoalStatus.setVisibility(View.VISIBLE);
+
+                tvGoalRange.setText(String.format(Locale.getDefault(),
+                        "Goal: %d - %d kcal", minGoal, maxGoal));
+
+                // Set progress bar
+                progressBar.setMax(maxGoal);
+                progressBar.setProgress((int) totalCalories, true);
+            } else {
+                tvGoalStatus.setVisibility(View.GONE);
+                tvGoalRange.setText("No goal set");
+                progressBar.setVisibility(View.GONE);
+            }
+
+            // Show total
+            tvTotal.setText(String.format(Locale.getDefault(),
+                    "%.0f kcal", totalCalories));
 
-                // Show total
-                tvTotal.setText(String.format(Locale.getDefault(),
-                        "%.0f kcal", totalCalories));
-
-                // Convert entities to CalorieEntry list for adapter
-                List<CalorieEntry> calorieEntries = new ArrayList<>();
-                for (CalorieEntryEntity entity : entries) {
-                    calorieEntries.add(new CalorieEntry(
-                            entity.getName(),
-                            entity.getQuantity(),
-                            entity.getCaloriesPerUnit()
-                    ));
+            // Rows are formatted on the read pool so binding only sets text
+            Resources res = getResources();
+            repository.read(() -> EntryDisplayModel.ofAll(res, snapshot.getEntries()), models -> {
+                if (getView() != null) {
+                    adapter.submitList(models);
                 }
-                adapter.submitList(calorieEntries);
             });
         });
     }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
\ No newline at end of file
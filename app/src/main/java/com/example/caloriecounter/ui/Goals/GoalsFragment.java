@@ -13,32 +13,34 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.viewpager2.widget.ViewPager2;
 
 import com.example.caloriecounter.R;
-import com.example.caloriecounter.data.database.AppDatabase;
-import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.DailyTotal;
+import com.example.caloriecounter.data.repository.CalorieRepository;
+import com.example.caloriecounter.data.repository.DaySnapshot;
 import com.example.caloriecounter.databinding.FragmentGoalsBinding;
 import com.example.caloriecounter.utils.DateUtils;
+import com.example.caloriecounter.utils.DayKeyCodec;
+import com.example.caloriecounter.utils.FrameStats;
+import com.example.caloriecounter.utils.PerfTrace;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class GoalsFragment extends Fragment {
     private FragmentGoalsBinding binding;
     private List<CaloriePreset> presets;
-    private CalorieEntryDao dao;
-    private ExecutorService executorService;
-    private Set<String> datesWithEntries = new HashSet<>();
-    private Map<String, Boolean> goalStatusMap = new HashMap<>();
-    private CustomCalendarView customCalendarView;
+    private CalorieRepository repository;
+    private List<DailyTotal> dailyTotals = new ArrayList<>();
+    private List<DailyTotal> yearTotals = new ArrayList<>();
+    private CalendarMarks calendarMarks = CalendarMarks.EMPTY;
+    private int marksGeneration;
+    private MonthPagerAdapter monthPagerAdapter;
     private View goalsMainContent;
     private FrameLayout fragmentContainer;
 
@@ -46,38 +48,25 @@ public class GoalsFragment extends Fragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         initializePresets();
-        AppDatabase database = AppDatabase.getInstance(requireContext());
-        dao = database.calorieEntryDao();
-        executorService = Executors.newSingleThreadExecutor();
-
-        // Load all dates with entries
-        dao.getAllDatesWithEntries().observe(this, dates -> {
-            if (dates != null) {
-                datesWithEntries.clear();
-                datesWithEntries.addAll(dates);
-
-                // Calculate goal status for each date
-                executorService.execute(() -> {
-                    SharedPreferences prefs = requireActivity()
-                            .getSharedPreferences("CalorieGoals", Context.MODE_PRIVATE);
-                    int minGoal = prefs.getInt("min_goal", 0);
-                    int maxGoal = prefs.getInt("max_goal", 0);
-
-                    goalStatusMap.clear();
-                    for (String date : dates) {
-                        double total = dao.getTotalCaloriesForDate(date);
-                        boolean metGoal = minGoal > 0 && maxGoal > 0 &&
-                                total >= minGoal && total <= maxGoal;
-                        goalStatusMap.put(date, metGoal);
-                    }
+        repository = CalorieRepository.getInstance(requireContext());
 
-                    requireActivity().runOnUiThread(() -> {
-                        if (customCalendarView != null) {
-                            customCalendarView.setDatesWithEntries(datesWithEntries);
-                            customCalendarView.setGoalStatusMap(goalStatusMap);
-                        }
-                    });
-                });
+        // Load every day's total in a single aggregated query
+        repository.observeAllDailyTotals().observe(this, totals -> {
+            if (totals != null) {
+                dailyTotals = totals;
+                refreshGoalStatus(totals);
+            }
+        });
+
+        // The heatmap's year comes from one range query over daily_totals, ending
+        // at the repository's tracked day so the range moves on at day close
+        LiveData<Integer> today = Transformations.distinctUntilChanged(Transformations.map(
+                repository.trackDay(DayKeyCodec.today()), DaySnapshot::getEpochDay));
+        Transformations.switchMap(today, day ->
+                repository.observeDailyTotals(day - YearHeatmapView.DAYS + 1, day)).observe(this, totals -> {
+            if (totals != null) {
+                yearTotals = totals;
+                refreshHeatmap();
             }
         });
     }
@@ -101,11 +90,20 @@ public class GoalsFragment extends Fragment {
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
+        FrameStats.track(getViewLifecycleOwner(), requireActivity().getWindow(), "Goals");
 
         loadSavedGoals();
         binding.btnPresets.setOnClickListener(v -> showPresetsDialog());
         binding.btnSetGoal.setOnClickListener(v -> saveGoals());
 
+        refreshHeatmap();
+        // Start at today's end of the year
+        binding.heatmapScroll.post(() -> {
+            if (binding != null) {
+                binding.heatmapScroll.fullScroll(View.FOCUS_RIGHT);
+            }
+        });
+
         // Handle Goals tab reselection to dismiss DayDetail
         setupNavigationReselectionListener();
     }
@@ -137,6 +135,8 @@ public class GoalsFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
+        // Catches a date change the midnight job has not handled yet
+        repository.trackDay(DayKeyCodec.today());
 
         // Listen for back stack changes
         getChildFragmentManager().addOnBackStackChangedListener(() -> {
@@ -148,19 +148,7 @@ public class GoalsFragment extends Fragment {
     }
 
     private void setupCustomCalendar() {
-        customCalendarView = new CustomCalendarView(requireContext());
-        customCalendarView.setLayoutParams(new FrameLayout.LayoutParams(
-                FrameLayout.LayoutParams.MATCH_PARENT,
-                FrameLayout.LayoutParams.MATCH_PARENT
-        ));
-
-        binding.customCalendarContainer.addView(customCalendarView);
-
-        // Set initial data if already loaded
-        customCalendarView.setDatesWithEntries(datesWithEntries);
-        customCalendarView.setGoalStatusMap(goalStatusMap);
-
-        customCalendarView.setOnDateClickListener((year, month, day) -> {
+        monthPagerAdapter = new MonthPagerAdapter((year, month, day) -> {
             String selectedDate = DateUtils.formatDate(year, month, day);
 
             if (DateUtils.isFutureDate(selectedDate)) {
@@ -168,7 +156,7 @@ public class GoalsFragment extends Fragment {
                 return;
             }
 
-            if (!datesWithEntries.contains(selectedDate)) {
+            if (!calendarMarks.hasEntries(DateUtils.toEpochDay(year, month, day))) {
                 Toast.makeText(getContext(), "No entries for this date", Toast.LENGTH_SHORT).show();
                 return;
             }
@@ -176,10 +164,31 @@ public class GoalsFragment extends Fragment {
             // Show DayDetailFragment
             showDayDetail(selectedDate);
         });
+        // Set initial data if already loaded
+        monthPagerAdapter.setMarks(calendarMarks);
+
+        ViewPager2 pager = binding.calendarPager;
+        pager.setAdapter(monthPagerAdapter);
+        // Keep the neighbouring pages bound and drawn so a swipe never lands on an empty month
+        pager.setOffscreenPageLimit(1);
+        int packed = DayKeyCodec.toPackedDate(DayKeyCodec.today());
+        pager.setCurrentItem(MonthPagerAdapter.positionOf(
+                DayKeyCodec.yearOf(packed), DayKeyCodec.monthOf(packed)), false);
+        pager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
+            @Override
+            public void onPageSelected(int position) {
+                monthPagerAdapter.prefetchAround(position, pager.getWidth(), pager.getHeight());
+            }
+        });
+        pager.addOnLayoutChangeListener((v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> {
+            if (right - left != oldRight - oldLeft || bottom - top != oldBottom - oldTop) {
+                monthPagerAdapter.prefetchAround(pager.getCurrentItem(), right - left, bottom - top);
+            }
+        });
 
         // Setup navigation buttons
-        binding.btnPrevMonth.setOnClickListener(v -> customCalendarView.previousMonth());
-        binding.btnNextMonth.setOnClickListener(v -> customCalendarView.nextMonth());
+        binding.btnPrevMonth.setOnClickListener(v -> pager.setCurrentItem(pager.getCurrentItem() - 1, true));
+        binding.btnNextMonth.setOnClickListener(v -> pager.setCurrentItem(pager.getCurrentItem() + 1, true));
     }
 
     private void showDayDetail(String date) {
@@ -298,37 +307,53 @@ public class GoalsFragment extends Fragment {
         ).show();
 
         // Recalculate goal status for all dates with new goals
-        executorService.execute(() -> {
-            goalStatusMap.clear();
-            for (String date : datesWithEntries) {
-                double total = dao.getTotalCaloriesForDate(date);
-                boolean metGoal = minGoal > 0 && maxGoal > 0 &&
-                        total >= minGoal && total <= maxGoal;
-                goalStatusMap.put(date, metGoal);
-            }
+        refreshGoalStatus(dailyTotals);
+        refreshHeatmap();
+    }
 
-            requireActivity().runOnUiThread(() -> {
-                if (customCalendarView != null) {
-                    customCalendarView.setGoalStatusMap(goalStatusMap);
-                }
-            });
+    private void refreshHeatmap() {
+        if (binding == null) {
+            return;
+        }
+        SharedPreferences prefs = requireActivity()
+                .getSharedPreferences("CalorieGoals", Context.MODE_PRIVATE);
+        binding.yearHeatmap.setData(yearTotals, prefs.getInt("min_goal", 0), prefs.getInt("max_goal", 0));
+    }
+
+    private void refreshGoalStatus(List<DailyTotal> totals) {
+        SharedPreferences prefs = requireActivity()
+                .getSharedPreferences("CalorieGoals", Context.MODE_PRIVATE);
+        int minGoal = prefs.getInt("min_goal", 0);
+        int maxGoal = prefs.getInt("max_goal", 0);
+
+        // Marks are built on the read pool and swapped in whole on the main thread;
+        // a build that finishes after a newer one started is dropped
+        int generation = ++marksGeneration;
+        repository.read(() -> {
+            PerfTrace.begin("Goals.buildMarks");
+            try {
+                return CalendarMarks.build(totals, minGoal, maxGoal);
+            } finally {
+                PerfTrace.end();
+            }
+        }, marks -> {
+            if (generation != marksGeneration) {
+                return;
+            }
+            calendarMarks = marks;
+            if (monthPagerAdapter != null) {
+                monthPagerAdapter.setMarks(marks);
+            }
         });
     }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        monthPagerAdapter = null;
         binding = null;
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
-
     public static class CaloriePreset {
         private final String name;
         private final int minCalories;
@@ -0,0 +1,111 @@
+package com.example.caloriecounter.ui.Goals;
+
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * Everything {@link CustomCalendarView} needs to draw one month at one size:
+ * cell centres, labels and past/today flags. Built when the month,
+ * the view size or the current day changes, so drawing only reads arrays.
+ * Index i in every array is day i + 1 of the month.
+ */
+final class MonthLayout {
+
+    private static final String[] DAY_LABELS = new String[31];
+
+    static {
+        for (int i = 0; i < DAY_LABELS.length; i++) {
+            DAY_LABELS[i] = String.valueOf(i + 1);
+        }
+    }
+
+    final int year;
+    final int month;
+    final int todayEpochDay;
+    final int width;
+    final int height;
+    final int firstEpochDay;
+    final int daysInMonth;
+    final int firstColumn;
+
+    final String title;
+    final float[] cellX;
+    final float[] cellY;
+    final boolean[] past;
+    /** Index of today in this month, or -1. */
+    final int todayIndex;
+
+    final float cellWidth;
+    final float cellHeight;
+    final float gridTop;
+    final float markerRadius;
+
+    MonthLayout(int year, int month, int todayEpochDay, int width, int height,
+                float headerHeight, float dayNameHeight, Locale locale) {
+        this.year = year;
+        this.month = month;
+        this.todayEpochDay = todayEpochDay;
+        this.width = width;
+        this.height = height;
+        firstEpochDay = DayKeyCodec.toEpochDay(year, month, 1);
+        daysInMonth = DayKeyCodec.lengthOfMonth(year, month);
+        // 1970-01-01 was a Thursday; column 0 is Sunday
+        firstColumn = Math.floorMod(firstEpochDay + 4, 7);
+
+        Calendar calendar = Calendar.getInstance(locale);
+        calendar.clear();
+        calendar.set(year, month, 1);
+        title = new SimpleDateFormat("MMMM yyyy", locale).format(calendar.getTime());
+
+        cellWidth = width / 7f;
+        // 6 rows for dates
+        cellHeight = (height - headerHeight - dayNameHeight) / 6f;
+        gridTop = headerHeight + dayNameHeight;
+        markerRadius = Math.min(cellWidth, cellHeight) / 3.5f;
+
+        cellX = new float[daysInMonth];
+        cellY = new float[daysInMonth];
+        past = new boolean[daysInMonth];
+        int todayAt = -1;
+        for (int i = 0; i < daysInMonth; i++) {
+            int cell = firstColumn + i;
+            cellX[i] = (cell % 7) * cellWidth + cellWidth / 2f;
+            cellY[i] = gridTop + (cell / 7) * cellHeight + cellHeight / 2f;
+            int epochDay = firstEpochDay + i;
+            past[i] = epochDay < todayEpochDay;
+            if (epochDay == todayEpochDay) {
+                todayAt = i;
+            }
+        }
+        todayIndex = todayAt;
+    }
+
+    static String dayLabel(int index) {
+        return DAY_LABELS[index];
+    }
+
+    boolean matches(int year, int month, int todayEpochDay, int width, int height) {
+        return this.year == year && this.month == month && this.todayEpochDay == todayEpochDay
+                && this.width == width && this.height == height;
+    }
+
+    /**
+     * Day of month under a point, or 0 when the point is outside the date grid
+     * or on an empty cell.
+     */
+    int dayAt(float x, float y) {
+        if (y < gridTop || cellWidth <= 0 || cellHeight <= 0) {
+            return 0;
+        }
+        int col = (int) (x / cellWidth);
+        int row = (int) ((y - gridTop) / cellHeight);
+        if (row < 0 || col < 0 || col > 6 || row > 5) {
+            return 0;
+        }
+        int day = row * 7 + col - firstColumn + 1;
+        return day > 0 && day <= daysInMonth ? day : 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.caloriecounter.ui.Goals;
+
+import android.util.SparseArray;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.caloriecounter.data.repository.AppExecutors;
+import com.example.caloriecounter.utils.DayKeyCodec;
+
+import java.util.List;
+
+/**
+ * One {@link CustomCalendarView} page per month. Page positions are month
+ * indexes (year * 12 + month) counted from January of
+ * {@link DayKeyCodec#FIRST_CACHED_YEAR}. Layouts for the months around the
+ * current page are built on the read pool so a newly bound page only has to
+ * draw.
+ */
+public class MonthPagerAdapter extends RecyclerView.Adapter<MonthPagerAdapter.PageVH> {
+
+    static final int PREFETCH_MONTHS = 2;
+    // Prefetched layouts further than this from the current page are dropped
+    private static final int KEEP_MONTHS = 6;
+    private static final int FIRST_MONTH = DayKeyCodec.FIRST_CACHED_YEAR * 12;
+    private static final int MONTH_COUNT =
+            (DayKeyCodec.LAST_CACHED_YEAR - DayKeyCodec.FIRST_CACHED_YEAR + 1) * 12;
+    private static final Object PAYLOAD_MARKS = new Object();
+
+    private final CustomCalendarView.OnDateClickListener clickListener;
+    // Only touched on the main thread
+    private final SparseArray<MonthLayout> layouts = new SparseArray<>();
+    private CalendarMarks marks = CalendarMarks.EMPTY;
+    private int pageWidth;
+    private int pageHeight;
+    private int currentPosition;
+
+    public MonthPagerAdapter(CustomCalendarView.OnDateClickListener clickListener) {
+        this.clickListener = clickListener;
+    }
+
+    static class PageVH extends RecyclerView.ViewHolder {
+        final CustomCalendarView calendar;
+
+        PageVH(@NonNull CustomCalendarView calendar) {
+            super(calendar);
+            this.calendar = calendar;
+        }
+    }
+
+    public static int positionOf(int year, int month) {
+        return year * 12 + month - FIRST_MONTH;
+    }
+
+    public static int yearAt(int position) {
+        return (position + FIRST_MONTH) / 12;
+    }
+
+    public static int monthAt(int position) {
+        return (position + FIRST_MONTH) % 12;
+    }
+
+    public void setMarks(CalendarMarks marks) {
+        this.marks = marks;
+        // Rebinds attached and cached pages only
+        notifyItemRangeChanged(0, MONTH_COUNT, PAYLOAD_MARKS);
+    }
+
+    /**
+     * Builds layouts for the months within {@link #PREFETCH_MONTHS} of a page
+     * in the background, for pages of the given size.
+     */
+    public void prefetchAround(int position, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (width != pageWidth || height != pageHeight) {
+            pageWidth = width;
+            pageHeight = height;
+            layouts.clear();
+        }
+        for (int i = layouts.size() - 1; i >= 0; i--) {
+            if (Math.abs(layouts.keyAt(i) - position) > KEEP_MONTHS) {
+                layouts.removeAt(i);
+            }
+        }
+
+        currentPosition = position;
+        int today = DayKeyCodec.today();
+        for (int offset = -PREFETCH_MONTHS; offset <= PREFETCH_MONTHS; offset++) {
+            int target = position + offset;
+            if (target < 0 || target >= MONTH_COUNT) {
+                continue;
+            }
+            MonthLayout cached = layouts.get(target);
+            if (cached != null && cached.todayEpochDay == today) {
+                continue;
+            }
+            int year = yearAt(target);
+            int month = monthAt(target);
+            AppExecutors executors = AppExecutors.getInstance();
+            executors.reader().execute(() -> {
+                MonthLayout layout = CustomCalendarView.buildLayout(year, month, today, width, height);
+                executors.mainThread().execute(() -> {
+                    // Drop it if the pager was resized or has moved far away since
+                    if (width == pageWidth && height == pageHeight
+                            && Math.abs(target - currentPosition) <= KEEP_MONTHS) {
+                        layouts.put(target, layout);
+                    }
+                });
+            });
+        }
+    }
+
+    @NonNull
+    @Override
+    public PageVH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        CustomCalendarView calendar = new CustomCalendarView(parent.getContext());
+        calendar.setLayoutParams(new RecyclerView.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        calendar.setOnDateClickListener(clickListener);
+        return new PageVH(calendar);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PageVH holder, int position) {
+        holder.calendar.setMarks(marks);
+        holder.calendar.setMonth(monthAt(position), yearAt(position), layouts.get(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PageVH holder, int position, @NonNull List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_MARKS) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.calendar.setMarks(marks);
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return MONTH_COUNT;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.caloriecounter.ui.Goals;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import com.example.caloriecounter.data.database.DailyTotal;
+import com.example.caloriecounter.utils.DayKeyCodec;
+import com.example.caloriecounter.utils.PerfTrace;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The last {@link #DAYS} days as a week-column heatmap, one cell per day
+ * coloured by how close its total came to the goal range. Cells are painted
+ * into a cached bitmap; new data repaints only the cells whose colour changed
+ * and drawing is a single bitmap blit.
+ */
+public class YearHeatmapView extends View {
+
+    public static final int DAYS = 365;
+
+    static final int EMPTY_COLOR = 0xFFEBEDF0;
+    static final int MET_COLOR = 0xFF2EA043;
+    static final int NO_GOAL_COLOR = 0xFF7FB6E8;
+    private static final int NEAR_COLOR = 0xFF9BE9A8;
+    private static final int FAR_COLOR = 0xFFE5534B;
+
+    private final Paint cellPaint = new Paint();
+    private final int cellSize;
+    private final int cellGap;
+
+    // colors[i] is the day lastDay - DAYS + 1 + i
+    private int[] colors = new int[DAYS];
+    private int lastDay;
+    private int firstRow;
+    private Bitmap bitmap;
+    private Canvas bitmapCanvas;
+
+    public YearHeatmapView(Context context) {
+        this(context, null);
+    }
+
+    public YearHeatmapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        cellSize = Math.round(12 * density);
+        cellGap = Math.round(2 * density);
+        setDays(DayKeyCodec.today());
+        Arrays.fill(colors, EMPTY_COLOR);
+    }
+
+    /**
+     * Recolours the grid ending today from per-day totals, which may cover any
+     * subset of the last {@link #DAYS} days.
+     */
+    public void setData(List<DailyTotal> totals, int minGoal, int maxGoal) {
+        PerfTrace.begin("YearHeatmap.setData");
+        try {
+            updateCells(totals, minGoal, maxGoal);
+        } finally {
+            PerfTrace.end();
+        }
+        invalidate();
+    }
+
+    private void updateCells(List<DailyTotal> totals, int minGoal, int maxGoal) {
+        int today = DayKeyCodec.today();
+        int[] next = new int[DAYS];
+        Arrays.fill(next, EMPTY_COLOR);
+        int first = today - DAYS + 1;
+        for (DailyTotal total : totals) {
+            int index = total.getEpochDay() - first;
+            if (index >= 0 && index < DAYS) {
+                next[index] = colorFor(total.getTotal(), minGoal, maxGoal);
+            }
+        }
+
+        if (today != lastDay) {
+            // The grid shifted; every cell moves
+            setDays(today);
+            colors = next;
+            releaseBitmap();
+            requestLayout();
+        } else if (bitmap != null) {
+            for (int i = 0; i < DAYS; i++) {
+                if (next[i] != colors[i]) {
+                    paintCell(i, next[i]);
+                }
+            }
+            colors = next;
+        } else {
+            colors = next;
+        }
+    }
+
+    /** Cell colour for a day's total against the goal range. */
+    static int colorFor(double total, int minGoal, int maxGoal) {
+        if (total <= 0) {
+            return EMPTY_COLOR;
+        }
+        if (minGoal <= 0 || maxGoal <= 0) {
+            return NO_GOAL_COLOR;
+        }
+        if (total >= minGoal && total <= maxGoal) {
+            return MET_COLOR;
+        }
+        // 1 just outside the range, falling towards 0 at half or double the goal
+        double closeness = total < minGoal ? total / minGoal : maxGoal / total;
+        double t = Math.max(0, Math.min(1, (closeness - 0.5) * 2));
+        return blend(FAR_COLOR, NEAR_COLOR, t);
+    }
+
+    private static int blend(int from, int to, double t) {
+        int r = (int) Math.round(((from >> 16) & 0xFF) + (((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)) * t);
+        int g = (int) Math.round(((from >> 8) & 0xFF) + (((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)) * t);
+        int b = (int) Math.round((from & 0xFF) + ((to & 0xFF) - (from & 0xFF)) * t);
+        return 0xFF000000 | r << 16 | g << 8 | b;
+    }
+
+    private void setDays(int today) {
+        lastDay = today;
+        // 1970-01-01 was a Thursday; row 0 is Sunday
+        firstRow = Math.floorMod(today - DAYS + 1 + 4, 7);
+    }
+
+    private int columnCount() {
+        return (firstRow + DAYS + 6) / 7;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int pitch = cellSize + cellGap;
+        int width = getPaddingLeft() + getPaddingRight() + columnCount() * pitch;
+        int height = getPaddingTop() + getPaddingBottom() + 7 * pitch;
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (bitmap == null) {
+            renderAll();
+        }
+        canvas.drawBitmap(bitmap, getPaddingLeft(), getPaddingTop(), null);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseBitmap();
+    }
+
+    private void renderAll() {
+        int pitch = cellSize + cellGap;
+        bitmap = Bitmap.createBitmap(columnCount() * pitch, 7 * pitch, Bitmap.Config.ARGB_8888);
+        bitmapCanvas = new Canvas(bitmap);
+        for (int i = 0; i < DAYS; i++) {
+            paintCell(i, colors[i]);
+        }
+    }
+
+    private void paintCell(int index, int color) {
+        int cell = firstRow + index;
+        int pitch = cellSize + cellGap;
+        float left = (cell / 7) * pitch;
+        float top = (cell % 7) * pitch;
+        cellPaint.setColor(color);
+        bitmapCanvas.drawRect(left, top, left + cellSize, top + cellSize, cellPaint);
+    }
+
+    private void releaseBitmap() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            bitmapCanvas = null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.caloriecounter.ui.History;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.caloriecounter.R;
+import com.example.caloriecounter.ui.Overview.EntriesAdapter;
+
+public class HistoryAdapter extends PagingDataAdapter<HistoryItem, RecyclerView.ViewHolder> {
+
+    private static final int TYPE_HEADER = 0;
+    private static final int TYPE_ENTRY = 1;
+
+    public HistoryAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    private static final DiffUtil.ItemCallback<HistoryItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull HistoryItem oldItem, @NonNull HistoryItem newItem) {
+                    if (oldItem instanceof HistoryItem.Header && newItem instanceof HistoryItem.Header) {
+                        return oldItem.epochDay == newItem.epochDay;
+                    }
+                    if (oldItem instanceof HistoryItem.Entry && newItem instanceof HistoryItem.Entry) {
+                        return ((HistoryItem.Entry) oldItem).entry.id == ((HistoryItem.Entry) newItem).entry.id;
+                    }
+                    return false;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull HistoryItem oldItem, @NonNull HistoryItem newItem) {
+                    if (oldItem instanceof HistoryItem.Header) {
+                        return oldItem.date.equals(newItem.date);
+                    }
+                    HistoryItem.Entry a = (HistoryItem.Entry) oldItem;
+                    HistoryItem.Entry b = (HistoryItem.Entry) newItem;
+                    return a.entry.sameContentAs(b.entry);
+                }
+            };
+
+    static class HeaderVH extends RecyclerView.ViewHolder {
+        final TextView date;
+
+        HeaderVH(@NonNull View itemView) {
+            super(itemView);
+            date = itemView.findViewById(R.id.tvHistoryDate);
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return peek(position) instanceof HistoryItem.Header ? TYPE_HEADER : TYPE_ENTRY;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == TYPE_HEADER) {
+            return new HeaderVH(inflater.inflate(R.layout.item_history_header, parent, false));
+        }
+        return new EntriesAdapter.VH(inflater.inflate(R.layout.item_entry, parent, false));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        HistoryItem item = getItem(position);
+        if (item == null) {
+            return;
+        }
+        if (holder instanceof HeaderVH) {
+            ((HeaderVH) holder).date.setText(item.date);
+        } else {
+            EntriesAdapter.bindEntry((EntriesAdapter.VH) holder, ((HistoryItem.Entry) item).entry);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.caloriecounter.ui.History;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+
+import com.example.caloriecounter.databinding.FragmentHistoryBinding;
+
+public class HistoryFragment extends Fragment {
+    private FragmentHistoryBinding binding;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        binding = FragmentHistoryBinding.inflate(inflater, container, false);
+        return binding.getRoot();
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        HistoryViewModel viewModel = new ViewModelProvider(this).get(HistoryViewModel.class);
+        HistoryAdapter adapter = new HistoryAdapter();
+        binding.rvHistory.setLayoutManager(new LinearLayoutManager(requireContext()));
+        binding.rvHistory.setAdapter(adapter);
+
+        viewModel.getItems().observe(getViewLifecycleOwner(),
+                data -> adapter.submitData(getViewLifecycleOwner().getLifecycle(), data));
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        binding = null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.caloriecounter.ui.History;
+
+import android.content.res.Resources;
+
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.data.database.CalorieEntryWithFood;
+import com.example.caloriecounter.data.models.CalorieEntry;
+import com.example.caloriecounter.ui.Overview.EntryDisplayModel;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Row of the paged history list: either a day header or an entry of that day.
+ */
+public abstract class HistoryItem {
+    final int epochDay;
+    final String date;
+
+    HistoryItem(int epochDay, String date) {
+        this.epochDay = epochDay;
+        this.date = date;
+    }
+
+    public static class Header extends HistoryItem {
+        Header(int epochDay, String date) {
+            super(epochDay, date);
+        }
+    }
+
+    public static class Entry extends HistoryItem {
+        final EntryDisplayModel entry;
+
+        Entry(int epochDay, String date, EntryDisplayModel entry) {
+            super(epochDay, date);
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Formatted entry rows with a header before each day, for rows ordered by
+     * day. Mapping, row formatting and separator insertion run on the given
+     * executor, page by page.
+     */
+    static PagingData<HistoryItem> withDayHeaders(PagingData<CalorieEntryWithFood> rows,
+                                                  Executor executor, Resources res) {
+        PagingData<HistoryItem> entries = PagingDataTransforms.map(rows, executor, row -> {
+            CalorieEntryEntity entity = row.toEntity();
+            return new Entry(entity.getEpochDay(), entity.getDate(),
+                    EntryDisplayModel.of(res, new CalorieEntry(
+                            entity.getId(),
+                            entity.getName(),
+                            entity.getQuantity(),
+                            entity.getCaloriesPerUnit()
+                    )));
+        });
+        return PagingDataTransforms.insertSeparators(entries, executor,
+                (HistoryItem before, HistoryItem after) -> {
+                    if (after == null || (before != null && before.epochDay == after.epochDay)) {
+                        return null;
+                    }
+                    return new Header(after.epochDay, after.date);
+                });
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.caloriecounter.ui.History;
+
+import android.app.Application;
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+import com.example.caloriecounter.data.database.CalorieEntryWithFood;
+import com.example.caloriecounter.data.repository.AppExecutors;
+import com.example.caloriecounter.data.repository.CalorieRepository;
+
+import java.util.concurrent.Executor;
+
+public class HistoryViewModel extends AndroidViewModel {
+    static final int PAGE_SIZE = 60;
+
+    private final LiveData<PagingData<HistoryItem>> items;
+
+    public HistoryViewModel(@NonNull Application application) {
+        super(application);
+        CalorieRepository repository = CalorieRepository.getInstance(application);
+        Executor executor = AppExecutors.getInstance().reader();
+        Resources res = application.getResources();
+
+        Pager<Integer, CalorieEntryWithFood> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PAGE_SIZE, false),
+                repository::pageAllEntries);
+
+        LiveData<PagingData<HistoryItem>> withHeaders = Transformations.map(
+                PagingLiveData.getLiveData(pager), data -> HistoryItem.withDayHeaders(data, executor, res));
+        items = PagingLiveData.cachedIn(withHeaders, ViewModelKt.getViewModelScope(this));
+    }
+
+    public LiveData<PagingData<HistoryItem>> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.caloriecounter.ui.History;
+
+import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
+import androidx.recyclerview.widget.LinearLayoutManager;
+
+import com.example.caloriecounter.databinding.FragmentSearchBinding;
+
+import kotlin.Unit;
+
+/**
+ * Full-text search over the whole history, with matching entries paged in
+ * newest first under a header per day.
+ */
+public class SearchFragment extends Fragment {
+    private FragmentSearchBinding binding;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        binding = FragmentSearchBinding.inflate(inflater, container, false);
+        return binding.getRoot();
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        SearchViewModel viewModel = new ViewModelProvider(this).get(SearchViewModel.class);
+        HistoryAdapter adapter = new HistoryAdapter();
+        binding.rvSearchResults.setLayoutManager(new LinearLayoutManager(requireContext()));
+        binding.rvSearchResults.setAdapter(adapter);
+
+        viewModel.getResults().observe(getViewLifecycleOwner(),
+                data -> adapter.submitData(getViewLifecycleOwner().getLifecycle(), data));
+
+        adapter.addLoadStateListener(states -> {
+            if (binding != null) {
+                boolean settled = states.getRefresh() instanceof LoadState.NotLoading;
+                boolean empty = settled && adapter.getItemCount() == 0 && viewModel.hasQuery();
+                binding.tvSearchEmpty.setVisibility(empty ? View.VISIBLE : View.GONE);
+            }
+            return Unit.INSTANCE;
+        });
+
+        binding.etSearch.addTextChangedListener(new TextWatcher() {
+            @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+            @Override public void onTextChanged(CharSequence s, int start, int before, int count) {}
+            @Override public void afterTextChanged(Editable s) {
+                viewModel.setQuery(s);
+            }
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        binding = null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.caloriecounter.ui.History;
+
+import android.app.Application;
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+import com.example.caloriecounter.data.database.CalorieEntryWithFood;
+import com.example.caloriecounter.data.database.FoodFts;
+import com.example.caloriecounter.data.repository.AppExecutors;
+import com.example.caloriecounter.data.repository.CalorieRepository;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+public class SearchViewModel extends AndroidViewModel {
+
+    private final MutableLiveData<String> match = new MutableLiveData<>();
+    private final LiveData<PagingData<HistoryItem>> results;
+
+    public SearchViewModel(@NonNull Application application) {
+        super(application);
+        CalorieRepository repository = CalorieRepository.getInstance(application);
+        Executor executor = AppExecutors.getInstance().reader();
+        Resources res = application.getResources();
+
+        // Each new query gets its own pager; the previous one stops with its source
+        LiveData<PagingData<HistoryItem>> withHeaders = Transformations.switchMap(match, query -> {
+            if (query == null) {
+                return new MutableLiveData<>(PagingData.empty());
+            }
+            Pager<Integer, CalorieEntryWithFood> pager = new Pager<>(
+                    new PagingConfig(HistoryViewModel.PAGE_SIZE, HistoryViewModel.PAGE_SIZE, false),
+                    () -> repository.searchEntries(query));
+            return Transformations.map(PagingLiveData.getLiveData(pager),
+                    data -> HistoryItem.withDayHeaders(data, executor, res));
+        });
+        results = PagingLiveData.cachedIn(withHeaders, ViewModelKt.getViewModelScope(this));
+    }
+
+    /** Searches for entries whose food name contains every typed word as a word prefix. */
+    public void setQuery(CharSequence typed) {
+        String query = FoodFts.matchQuery(typed);
+        // Edits that only change punctuation or spacing keep the current results
+        if (!Objects.equals(query, match.getValue())) {
+            match.setValue(query);
+        }
+    }
+
+    public boolean hasQuery() {
+        return match.getValue() != null;
+    }
+
+    public LiveData<PagingData<HistoryItem>> getResults() {
+        return results;
+    }
+}
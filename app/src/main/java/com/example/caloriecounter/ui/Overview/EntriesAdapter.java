@@ -1,9 +1,9 @@
 package com.example.caloriecounter.ui.Overview;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import androidx.recyclerview.widget.AsyncDifferConfig;
 import androidx.recyclerview.widget.ListAdapter;
 import android.widget.TextView;
 
@@ -13,33 +13,42 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.caloriecounter.R;
 import com.example.caloriecounter.data.models.CalorieEntry;
+import com.example.caloriecounter.data.repository.AppExecutors;
+import com.example.caloriecounter.utils.PerfTrace;
 
-import java.util.Locale;
 import java.util.function.Consumer;
 
-public class EntriesAdapter extends ListAdapter<CalorieEntry, EntriesAdapter.VH> {
+public class EntriesAdapter extends ListAdapter<EntryDisplayModel, EntriesAdapter.VH> {
 
-    private final Consumer<Integer> onEditListener;
-    private final Consumer<Integer> onDeleteListener;
+    private final Consumer<CalorieEntry> onEditListener;
+    private final Consumer<CalorieEntry> onDeleteListener;
 
-    public EntriesAdapter(Consumer<Integer> onEditListener, Consumer<Integer> onDeleteListener) {
-        super(DIFF_CALLBACK);
+    public EntriesAdapter(Consumer<CalorieEntry> onEditListener, Consumer<CalorieEntry> onDeleteListener) {
+        // Diffs run on the read pool inside a trace section
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(PerfTrace.wrap("EntriesAdapter.diff", AppExecutors.getInstance().reader()))
+                .build());
         this.onEditListener = onEditListener;
         this.onDeleteListener = onDeleteListener;
+        setHasStableIds(true);
     }
 
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
 
-    private static final DiffUtil.ItemCallback<CalorieEntry> DIFF_CALLBACK =
+
+    private static final DiffUtil.ItemCallback<EntryDisplayModel> DIFF_CALLBACK =
             new DiffUtil.ItemCallback<>() {
                 @Override
-                public boolean areItemsTheSame(@NonNull CalorieEntry oldItem, @NonNull CalorieEntry newItem) {
-                    return oldItem.getName().equals(newItem.getName());
+                public boolean areItemsTheSame(@NonNull EntryDisplayModel oldItem, @NonNull EntryDisplayModel newItem) {
+                    return oldItem.id == newItem.id;
                 }
 
                 @Override
-                public boolean areContentsTheSame(@NonNull CalorieEntry oldItem, @NonNull CalorieEntry newItem) {
-                    return oldItem.getQuantity() == newItem.getQuantity() &&
-                            oldItem.getCaloriesPerUnit() == newItem.getCaloriesPerUnit();
+                public boolean areContentsTheSame(@NonNull EntryDisplayModel oldItem, @NonNull EntryDisplayModel newItem) {
+                    return oldItem.sameContentAs(newItem);
                 }
             };
 
@@ -55,11 +64,14 @@ public class EntriesAdapter extends ListAdapter<CalorieEntry, EntriesAdapter.VH>
         }
     }
 
-    private String formatNumber(double value) {
-        if (value == (long) value)
-            return String.format(Locale.getDefault(), "%d", (long) value);
-        else
-            return String.format(Locale.getDefault(), "%.2f", value);
+    /**
+     * Fill an item_entry row from pre-formatted text; shared with the paged history list.
+     */
+    public static void bindEntry(@NonNull VH holder, @NonNull EntryDisplayModel model) {
+        holder.name.setText(model.name);
+        holder.qty.setText(model.quantity);
+        holder.perUnit.setText(model.perUnit);
+        holder.total.setText(model.total);
     }
 
     @NonNull
@@ -72,25 +84,19 @@ public class EntriesAdapter extends ListAdapter<CalorieEntry, EntriesAdapter.VH>
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        CalorieEntry e = getItem(position);
-        Context context = holder.itemView.getContext();
-
-        holder.name.setText(e.getName());
-        holder.qty.setText(context.getString(R.string.entry_quantity, formatNumber(e.getQuantity())));
-        holder.perUnit.setText(context.getString(R.string.entry_calories_per_unit, formatNumber(e.getCaloriesPerUnit())));
-        holder.total.setText(context.getString(R.string.entry_total, formatNumber(e.getTotalCalories())));
+        bindEntry(holder, getItem(position));
 
         holder.itemView.setOnClickListener(v -> {
             int currentPosition = holder.getBindingAdapterPosition();
             if (currentPosition != RecyclerView.NO_POSITION && onEditListener != null) {
-                onEditListener.accept(currentPosition);
+                onEditListener.accept(getItem(currentPosition).entry);
             }
         });
 
         holder.itemView.setOnLongClickListener(v -> {
             int currentPosition = holder.getBindingAdapterPosition();
             if (currentPosition != RecyclerView.NO_POSITION && onDeleteListener != null) {
-                onDeleteListener.accept(currentPosition);
+                onDeleteListener.accept(getItem(currentPosition).entry);
             }
             return true;
         });
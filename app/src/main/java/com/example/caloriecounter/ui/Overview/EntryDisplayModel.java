@@ -0,0 +1,68 @@
+package com.example.caloriecounter.ui.Overview;
+
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+
+import com.example.caloriecounter.R;
+import com.example.caloriecounter.data.models.CalorieEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An item_entry row ready to bind: the entry plus its quantity, per-unit and
+ * total texts, formatted once off the main thread so binding only sets text.
+ */
+public final class EntryDisplayModel {
+    public final long id;
+    public final CalorieEntry entry;
+    public final String name;
+    public final String quantity;
+    public final String perUnit;
+    public final String total;
+
+    private EntryDisplayModel(CalorieEntry entry, String quantity, String perUnit, String total) {
+        this.id = entry.getId();
+        this.entry = entry;
+        this.name = entry.getName();
+        this.quantity = quantity;
+        this.perUnit = perUnit;
+        this.total = total;
+    }
+
+    /** Formats one entry; {@link Resources#getString} is safe to call from any thread. */
+    @NonNull
+    public static EntryDisplayModel of(@NonNull Resources res, @NonNull CalorieEntry entry) {
+        return new EntryDisplayModel(entry,
+                res.getString(R.string.entry_quantity, formatNumber(entry.getQuantity())),
+                res.getString(R.string.entry_calories_per_unit, formatNumber(entry.getCaloriesPerUnit())),
+                res.getString(R.string.entry_total, formatNumber(entry.getTotalCalories())));
+    }
+
+    @NonNull
+    public static List<EntryDisplayModel> ofAll(@NonNull Resources res, @NonNull List<CalorieEntry> entries) {
+        List<EntryDisplayModel> models = new ArrayList<>(entries.size());
+        for (CalorieEntry entry : entries) {
+            models.add(of(res, entry));
+        }
+        return models;
+    }
+
+    /** Same id and the same visible text. */
+    public boolean sameContentAs(@NonNull EntryDisplayModel other) {
+        return id == other.id
+                && name.equals(other.name)
+                && quantity.equals(other.quantity)
+                && perUnit.equals(other.perUnit)
+                && total.equals(other.total);
+    }
+
+    static String formatNumber(double value) {
+        if (value == (long) value)
+            return String.format(Locale.getDefault(), "%d", (long) value);
+        else
+            return String.format(Locale.getDefault(), "%.2f", value);
+    }
+}
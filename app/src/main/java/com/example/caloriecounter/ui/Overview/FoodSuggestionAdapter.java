@@ -0,0 +1,100 @@
+package com.example.caloriecounter.ui.Overview;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+
+import com.example.caloriecounter.R;
+import com.example.caloriecounter.data.database.FoodEntity;
+import com.example.caloriecounter.data.repository.CalorieRepository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Autocomplete rows for the entry name field, looked up by name prefix in the
+ * foods catalog. The lookup runs on the filter's own worker thread.
+ */
+public class FoodSuggestionAdapter extends BaseAdapter implements Filterable {
+
+    private static final int MAX_SUGGESTIONS = 8;
+
+    private final CalorieRepository repository;
+    private List<FoodEntity> foods = Collections.emptyList();
+
+    public FoodSuggestionAdapter(CalorieRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public int getCount() {
+        return foods.size();
+    }
+
+    @Override
+    public FoodEntity getItem(int position) {
+        return foods.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return foods.get(position).getId();
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        View view = convertView != null ? convertView : LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_food_suggestion, parent, false);
+        FoodEntity food = getItem(position);
+        ((TextView) view.findViewById(R.id.tvFoodName)).setText(food.getName());
+        ((TextView) view.findViewById(R.id.tvFoodCalories)).setText(parent.getContext().getString(
+                R.string.entry_calories_per_unit, EntryDisplayModel.formatNumber(food.getLastCaloriesPerUnit())));
+        return view;
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+
+    private final Filter filter = new Filter() {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            FilterResults results = new FilterResults();
+            List<FoodEntity> matches = constraint == null
+                    ? Collections.emptyList()
+                    : repository.searchFoods(constraint, MAX_SUGGESTIONS);
+            results.values = matches;
+            results.count = matches.size();
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            foods = results.values != null ? (List<FoodEntity>) results.values : Collections.emptyList();
+            if (results.count > 0) {
+                notifyDataSetChanged();
+            } else {
+                notifyDataSetInvalidated();
+            }
+        }
+
+        @Override
+        public CharSequence convertResultToString(Object resultValue) {
+            return ((FoodEntity) resultValue).getName();
+        }
+    };
+}
@@ -20,18 +20,29 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.caloriecounter.R;
+import com.example.caloriecounter.data.database.FoodEntity;
+import com.example.caloriecounter.data.database.MealEntity;
 import com.example.caloriecounter.data.models.CalorieEntry;
+import com.example.caloriecounter.data.models.EntryValidator;
+import com.example.caloriecounter.data.repository.CalorieRepository;
 import com.example.caloriecounter.databinding.FragmentOverviewBinding;
+import com.example.caloriecounter.utils.FrameStats;
+import com.google.android.material.chip.Chip;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.android.material.textfield.MaterialAutoCompleteTextView;
 import com.google.android.material.textfield.TextInputEditText;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 
 public class OverviewFragment extends Fragment {
     private FragmentOverviewBinding binding;
     private OverviewViewModel viewModel;
+    private List<MealEntity> meals = Collections.emptyList();
 
     @Nullable
     @Override
@@ -45,14 +56,12 @@ public class OverviewFragment extends Fragment {
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
+        FrameStats.track(getViewLifecycleOwner(), requireActivity().getWindow(), "Overview");
 
         viewModel = new ViewModelProvider(this).get(OverviewViewModel.class);
 
         RecyclerView recyclerView = view.findViewById(R.id.rvEntries);
-        EntriesAdapter adapter = new EntriesAdapter(
-                position -> showEntryDialog(Objects.requireNonNull(viewModel.getEntries().getValue()).get(position), position),
-                this::confirmDelete
-        );
+        EntriesAdapter adapter = new EntriesAdapter(this::showEntryDialog, this::confirmDelete);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         recyclerView.setAdapter(adapter);
 
@@ -72,29 +81,139 @@ public class OverviewFragment extends Fragment {
         );
 
         FloatingActionButton fab = view.findViewById(R.id.fabAddEntry);
-        fab.setOnClickListener(v -> showEntryDialog(null, -1));
+        fab.setOnClickListener(v -> showEntryDialog(null));
+
+        viewModel.getTopFoods().observe(getViewLifecycleOwner(), this::showQuickAdd);
+
+        viewModel.getMeals().observe(getViewLifecycleOwner(), list -> meals = list);
+        binding.btnMeals.setOnClickListener(v -> showMealsDialog());
+    }
+
+    private void showQuickAdd(List<FoodEntity> foods) {
+        binding.chipGroupQuickAdd.removeAllViews();
+        for (FoodEntity food : foods) {
+            Chip chip = new Chip(requireContext());
+            chip.setText(food.getName());
+            chip.setContentDescription(getString(R.string.quick_add_food, food.getName()));
+            chip.setOnClickListener(v -> viewModel.quickAdd(food));
+            binding.chipGroupQuickAdd.addView(chip);
+        }
+        binding.scrollQuickAdd.setVisibility(foods.isEmpty() ? View.GONE : View.VISIBLE);
     }
 
     @Override
     public void onResume() {
         super.onResume();
+        viewModel.refreshDay();
         // Reload goals when returning to this fragment
         loadCalorieGoals();
     }
 
-    private void showEntryDialog(@Nullable CalorieEntry existingEntry, int position) {
+    private void showMealsDialog() {
+        List<MealEntity> saved = meals;
+        MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(requireContext())
+                .setTitle(R.string.meals)
+                .setNeutralButton(R.string.save_as_meal, (dialog, which) -> chooseMealItems())
+                .setNegativeButton(android.R.string.cancel, (dialog, which) -> dialog.dismiss());
+        if (saved.isEmpty()) {
+            builder.setMessage(R.string.no_meals);
+        } else {
+            // Picking a meal logs all of its items as one batch
+            builder.setItems(mealNames(saved), (dialog, which) -> viewModel.addMeal(saved.get(which)))
+                    .setPositiveButton(R.string.delete_meal, (dialog, which) -> chooseMealToDelete(saved));
+        }
+        builder.show();
+    }
+
+    private void chooseMealToDelete(List<MealEntity> saved) {
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle(R.string.delete_meal)
+                .setItems(mealNames(saved), (dialog, which) -> viewModel.deleteMeal(saved.get(which)))
+                .setNegativeButton(android.R.string.cancel, (dialog, which) -> dialog.dismiss())
+                .show();
+    }
+
+    private static CharSequence[] mealNames(List<MealEntity> saved) {
+        CharSequence[] names = new CharSequence[saved.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = saved.get(i).getName();
+        }
+        return names;
+    }
+
+    private void chooseMealItems() {
+        List<EntryDisplayModel> today = viewModel.getEntries().getValue();
+        if (today == null || today.isEmpty()) {
+            Toast.makeText(getContext(), R.string.no_entries_for_meal, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        CharSequence[] labels = new CharSequence[today.size()];
+        boolean[] checked = new boolean[today.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = getString(R.string.meal_item_label, today.get(i).name, today.get(i).quantity);
+            checked[i] = true;
+        }
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle(R.string.choose_meal_items)
+                .setMultiChoiceItems(labels, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setNegativeButton(android.R.string.cancel, (dialog, which) -> dialog.dismiss())
+                .setPositiveButton(R.string.meal_next, (dialog, which) -> {
+                    List<CalorieEntry> items = new ArrayList<>();
+                    for (int i = 0; i < checked.length; i++) {
+                        if (checked[i]) {
+                            items.add(today.get(i).entry);
+                        }
+                    }
+                    if (items.isEmpty()) {
+                        Toast.makeText(getContext(), R.string.error_meal_empty, Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    showSaveMealDialog(items);
+                })
+                .show();
+    }
+
+    private void showSaveMealDialog(List<CalorieEntry> items) {
+        View dialogView = LayoutInflater.from(requireContext()).inflate(R.layout.dialog_save_meal, null);
+        TextInputEditText etMealName = dialogView.findViewById(R.id.etMealName);
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle(R.string.save_as_meal)
+                .setView(dialogView)
+                .setNegativeButton(android.R.string.cancel, (dialog, which) -> dialog.dismiss())
+                .setPositiveButton(R.string.save_changes, (dialog, which) -> {
+                    String name = etMealName.getText() != null ? etMealName.getText().toString().trim() : "";
+                    if (name.isEmpty()) {
+                        Toast.makeText(getContext(), R.string.error_name_required, Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    viewModel.saveMeal(name, items);
+                })
+                .show();
+    }
+
+    private void showEntryDialog(@Nullable CalorieEntry existingEntry) {
         LayoutInflater inflater = LayoutInflater.from(requireContext());
         View dialogView = inflater.inflate(R.layout.dialog_add_entry, null);
 
-        TextInputEditText etName = dialogView.findViewById(R.id.etName);
+        MaterialAutoCompleteTextView etName = dialogView.findViewById(R.id.etName);
         TextInputEditText etQuantity = dialogView.findViewById(R.id.etQuantity);
         TextInputEditText etCaloriesPerUnit = dialogView.findViewById(R.id.etCaloriesPerUnit);
         TextView tvItemTotal = dialogView.findViewById(R.id.tvItemTotal);
         ImageButton btnInc = dialogView.findViewById(R.id.btnIncreaseQty);
         ImageButton btnDec = dialogView.findViewById(R.id.btnDecreaseQty);
 
+        // Picking a catalogued food fills in the calories it was last logged with
+        FoodSuggestionAdapter suggestions = new FoodSuggestionAdapter(
+                CalorieRepository.getInstance(requireContext()));
+        etName.setAdapter(suggestions);
+        etName.setOnItemClickListener((parent, view, position, id) -> {
+            FoodEntity food = suggestions.getItem(position);
+            etCaloriesPerUnit.setText(EntryDisplayModel.formatNumber(food.getLastCaloriesPerUnit()));
+        });
+
         if (existingEntry != null) {
-            etName.setText(existingEntry.getName());
+            // Without filtering, so the dropdown stays closed until the user types
+            etName.setText(existingEntry.getName(), false);
             etQuantity.setText(String.format(Locale.getDefault(), "%.2f", existingEntry.getQuantity()));
             etCaloriesPerUnit.setText(String.format(Locale.getDefault(), "%.2f", existingEntry.getCaloriesPerUnit()));
         } else {
@@ -145,39 +264,40 @@ public class OverviewFragment extends Fragment {
                     double qty = parseDoubleOrZero(etQuantity.getText() != null ? etQuantity.getText().toString() : "");
                     double per = parseDoubleOrZero(etCaloriesPerUnit.getText() != null ? etCaloriesPerUnit.getText().toString() : "");
 
-                    if (name.isEmpty()) {
+                    EntryValidator.Result validation = EntryValidator.validate(name, qty, per);
+                    if (validation == EntryValidator.Result.NAME_REQUIRED) {
                         Toast.makeText(getContext(), R.string.error_name_required, Toast.LENGTH_SHORT).show();
                         return;
                     }
 
-                    if (qty <= 0 || per <= 0) {
+                    if (validation == EntryValidator.Result.INVALID_NUMBERS) {
                         Toast.makeText(getContext(), R.string.error_invalid_numbers, Toast.LENGTH_SHORT).show();
                         return;
                     }
 
                     CalorieEntry entry = new CalorieEntry(name, qty, per);
                     if (isEditing) {
-                        viewModel.updateEntry(position, entry);
+                        viewModel.updateEntry(existingEntry.getId(), entry);
                     } else {
                         viewModel.addEntry(entry);
                     }
                 });
         if (isEditing) {
             builder.setNeutralButton(R.string.delete_entry_confirm, (dialog, which) -> {
-                confirmDelete(position);
+                confirmDelete(existingEntry);
             });
         }
 
         builder.show();
     }
 
-    private void confirmDelete(int position) {
+    private void confirmDelete(CalorieEntry entry) {
         new MaterialAlertDialogBuilder(requireContext())
                 .setTitle(R.string.delete_entry_title)
                 .setMessage(R.string.delete_entry_message)
                 .setNegativeButton(android.R.string.cancel, null)
                 .setPositiveButton(R.string.delete_entry_confirm, (dialog, which) ->
-                        viewModel.deleteEntry(position))
+                        viewModel.deleteEntry(entry.getId()))
                 .show();
     }
 
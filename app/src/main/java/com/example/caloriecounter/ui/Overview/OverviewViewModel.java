@@ -1,6 +1,7 @@
 package com.example.caloriecounter.ui.Overview;
 
 import android.app.Application;
+import android.content.res.Resources;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -8,58 +9,57 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.Transformations;
 
-import com.example.caloriecounter.data.database.AppDatabase;
-import com.example.caloriecounter.data.database.CalorieEntryDao;
 import com.example.caloriecounter.data.database.CalorieEntryEntity;
+import com.example.caloriecounter.data.database.FoodEntity;
+import com.example.caloriecounter.data.database.MealEntity;
 import com.example.caloriecounter.data.models.CalorieEntry;
+import com.example.caloriecounter.data.repository.CalorieRepository;
+import com.example.caloriecounter.data.repository.DaySnapshot;
 import com.example.caloriecounter.utils.DateUtils;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class OverviewViewModel extends AndroidViewModel {
-    private final CalorieEntryDao dao;
-    private final ExecutorService executorService;
-    private final LiveData<List<CalorieEntryEntity>> todayEntitiesLive;
-    private final LiveData<List<CalorieEntry>> entries;
-    private final MediatorLiveData<Double> totalCalories = new MediatorLiveData<>(0.0);
+    private static final int QUICK_ADD_SIZE = 8;
+
+    private final CalorieRepository repository;
+    private final MediatorLiveData<List<EntryDisplayModel>> entries = new MediatorLiveData<>();
+    private final LiveData<Double> totalCalories;
+    private final LiveData<List<FoodEntity>> topFoods;
+    private final LiveData<List<MealEntity>> meals;
+    private int entriesGeneration;
 
     public OverviewViewModel(@NonNull Application application) {
         super(application);
-        AppDatabase database = AppDatabase.getInstance(application);
-        dao = database.calorieEntryDao();
-        executorService = Executors.newSingleThreadExecutor();
-
-        // Get today's entries from database
-        todayEntitiesLive = dao.getEntriesForDate(DateUtils.getTodayDate());
-
-        // Convert entities to CalorieEntry objects
-        entries = Transformations.map(todayEntitiesLive, entities -> {
-            List<CalorieEntry> list = new ArrayList<>();
-            for (CalorieEntryEntity entity : entities) {
-                CalorieEntry entry = new CalorieEntry(
-                        entity.getName(),
-                        entity.getQuantity(),
-                        entity.getCaloriesPerUnit()
-                );
-                list.add(entry);
-            }
-            return list;
-        });
+        repository = CalorieRepository.getInstance(application);
 
-        // Calculate total calories
-        totalCalories.addSource(todayEntitiesLive, list -> {
-            double sum = 0;
-            for (CalorieEntryEntity e : list) {
-                sum += e.getTotalCalories();
-            }
-            totalCalories.setValue(sum);
+        // Today's entries and running total are kept up to date off the main thread;
+        // rows are formatted on the read pool so binding only sets text
+        LiveData<DaySnapshot> today = repository.trackDay(DateUtils.getTodayEpochDay());
+        Resources res = application.getResources();
+        entries.addSource(today, snapshot -> {
+            int generation = ++entriesGeneration;
+            repository.read(() -> EntryDisplayModel.ofAll(res, snapshot.getEntries()), models -> {
+                // A snapshot formatted after a newer one started is dropped
+                if (generation == entriesGeneration) {
+                    entries.setValue(models);
+                }
+            });
         });
+        totalCalories = Transformations.map(today, DaySnapshot::getTotalCalories);
+        topFoods = repository.observeTopFoods(QUICK_ADD_SIZE);
+        meals = repository.observeMeals();
     }
 
-    public LiveData<List<CalorieEntry>> getEntries() {
+    /**
+     * Re-points the live model at today if the date changed while the app was
+     * in the background; the midnight job normally did this already.
+     */
+    public void refreshDay() {
+        repository.trackDay(DateUtils.getTodayEpochDay());
+    }
+
+    public LiveData<List<EntryDisplayModel>> getEntries() {
         return entries;
     }
 
@@ -67,44 +67,60 @@ public class OverviewViewModel extends AndroidViewModel {
         return totalCalories;
     }
 
-    public void addEntry(CalorieEntry entry) {
-        executorService.execute(() -> {
-            CalorieEntryEntity entity = new CalorieEntryEntity(
-                    DateUtils.getTodayDate(),
-                    entry.getName(),
-                    entry.getQuantity(),
-                    entry.getCaloriesPerUnit(),
-                    System.currentTimeMillis()
-            );
-            dao.insert(entity);
-        });
+    public LiveData<List<FoodEntity>> getTopFoods() {
+        return topFoods;
     }
 
-    public void updateEntry(int index, CalorieEntry newEntry) {
-        executorService.execute(() -> {
-            List<CalorieEntryEntity> entities = dao.getEntriesForDateSync(DateUtils.getTodayDate());
-            if (index >= 0 && index < entities.size()) {
-                CalorieEntryEntity entity = entities.get(index);
-                entity.setName(newEntry.getName());
-                entity.setQuantity(newEntry.getQuantity());
-                entity.setCaloriesPerUnit(newEntry.getCaloriesPerUnit());
-                dao.update(entity);
-            }
-        });
+    /** One of the food, at the calories per unit it was last logged with. */
+    public void quickAdd(FoodEntity food) {
+        CalorieEntryEntity entity = new CalorieEntryEntity(
+                DateUtils.getTodayDate(),
+                food.getName(),
+                1,
+                food.getLastCaloriesPerUnit(),
+                System.currentTimeMillis()
+        );
+        repository.addFoodEntry(food, entity, null);
     }
 
-    public void deleteEntry(int index) {
-        executorService.execute(() -> {
-            List<CalorieEntryEntity> entities = dao.getEntriesForDateSync(DateUtils.getTodayDate());
-            if (index >= 0 && index < entities.size()) {
-                dao.delete(entities.get(index));
-            }
-        });
+    public LiveData<List<MealEntity>> getMeals() {
+        return meals;
+    }
+
+    /** Every item of the meal, logged today in one batch. */
+    public void addMeal(MealEntity meal) {
+        repository.addMeal(meal.getId(), DateUtils.getTodayDate(), System.currentTimeMillis(), null);
+    }
+
+    public void saveMeal(String name, List<CalorieEntry> entries) {
+        repository.saveMeal(name, entries, null);
+    }
+
+    public void deleteMeal(MealEntity meal) {
+        repository.deleteMeal(meal.getId());
+    }
+
+    public void addEntry(CalorieEntry entry) {
+        CalorieEntryEntity entity = new CalorieEntryEntity(
+                DateUtils.getTodayDate(),
+                entry.getName(),
+                entry.getQuantity(),
+                entry.getCaloriesPerUnit(),
+                System.currentTimeMillis()
+        );
+        repository.addEntry(entity, null);
+    }
+
+    public void updateEntry(long id, CalorieEntry newEntry) {
+        repository.updateEntry(
+                id,
+                newEntry.getName(),
+                newEntry.getQuantity(),
+                newEntry.getCaloriesPerUnit()
+        );
     }
 
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        executorService.shutdown();
+    public void deleteEntry(long id) {
+        repository.deleteEntry(id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.example.caloriecounter.ui.Transfer;
+
+import android.app.Dialog;
+import android.content.Context;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.DialogFragment;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.example.caloriecounter.R;
+import com.example.caloriecounter.data.transfer.TransferResult;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+
+import java.util.Locale;
+
+/**
+ * Non-cancelable progress dialog that follows the export or import run by the
+ * Activity's {@link TransferViewModel}. It is recreated with the Activity and
+ * holds no reference to the transfer, so rotating or leaving mid-transfer
+ * leaks nothing; the outcome is shown when the Activity is next started.
+ */
+public class TransferProgressDialog extends DialogFragment {
+    public static final String TAG = "TransferProgressDialog";
+    private static final String ARG_TITLE = "title";
+
+    private TransferViewModel viewModel;
+    private ProgressBar progressBar;
+    private TextView tvProgress;
+
+    public static TransferProgressDialog newInstance(int titleRes) {
+        TransferProgressDialog dialog = new TransferProgressDialog();
+        Bundle args = new Bundle();
+        args.putInt(ARG_TITLE, titleRes);
+        dialog.setArguments(args);
+        return dialog;
+    }
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setCancelable(false);
+        viewModel = new ViewModelProvider(requireActivity()).get(TransferViewModel.class);
+        viewModel.getState().observe(this, this::render);
+    }
+
+    @NonNull
+    @Override
+    public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
+        View view = getLayoutInflater().inflate(R.layout.dialog_transfer_progress, null);
+        progressBar = view.findViewById(R.id.progressTransfer);
+        tvProgress = view.findViewById(R.id.tvTransferProgress);
+        return new MaterialAlertDialogBuilder(requireContext())
+                .setTitle(requireArguments().getInt(ARG_TITLE))
+                .setView(view)
+                .create();
+    }
+
+    private void render(@Nullable TransferViewModel.State state) {
+        // No transfer after the process was restarted
+        if (state == null) {
+            dismissAllowingStateLoss();
+            return;
+        }
+        if (state.isFinished()) {
+            showOutcome(state);
+            viewModel.consume();
+            return;
+        }
+        progressBar.setIndeterminate(state.total <= 0);
+        if (state.total > 0) {
+            long done = Math.min(state.done, state.total);
+            progressBar.setMax(1000);
+            progressBar.setProgress((int) (done * 1000 / state.total));
+            tvProgress.setText(String.format(Locale.getDefault(), "%d%%", done * 100 / state.total));
+        }
+    }
+
+    private void showOutcome(TransferViewModel.State state) {
+        Context context = requireContext().getApplicationContext();
+        String message;
+        if (state.result != null) {
+            TransferResult result = state.result;
+            message = result.describe();
+            if (result.getRejectedRows() > 0) {
+                message = context.getString(R.string.transfer_rejected_rows, message, result.getRejectedRows());
+            }
+        } else {
+            message = context.getString(R.string.transfer_failed, state.error.getMessage());
+        }
+        Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+    }
+}
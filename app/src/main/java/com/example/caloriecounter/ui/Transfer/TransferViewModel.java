@@ -0,0 +1,90 @@
+package com.example.caloriecounter.ui.Transfer;
+
+import android.app.Application;
+import android.os.ParcelFileDescriptor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.caloriecounter.data.repository.CalorieRepository;
+import com.example.caloriecounter.data.transfer.HistoryExporter;
+import com.example.caloriecounter.data.transfer.HistoryImporter;
+import com.example.caloriecounter.data.transfer.TransferCallback;
+import com.example.caloriecounter.data.transfer.TransferResult;
+
+/**
+ * Runs an export or import and holds its progress, so that the progress
+ * dialog can be recreated with its Activity without the transfer keeping
+ * either alive.
+ */
+public class TransferViewModel extends AndroidViewModel {
+
+    /** Progress of the running transfer, or its outcome once it finished. */
+    public static class State {
+        final long done;
+        final long total;
+        @Nullable
+        final TransferResult result;
+        @Nullable
+        final Exception error;
+
+        State(long done, long total, @Nullable TransferResult result, @Nullable Exception error) {
+            this.done = done;
+            this.total = total;
+            this.result = result;
+            this.error = error;
+        }
+
+        boolean isFinished() {
+            return result != null || error != null;
+        }
+    }
+
+    private final CalorieRepository repository;
+    private final MutableLiveData<State> state = new MutableLiveData<>();
+
+    public TransferViewModel(@NonNull Application application) {
+        super(application);
+        repository = CalorieRepository.getInstance(application);
+    }
+
+    public LiveData<State> getState() {
+        return state;
+    }
+
+    public void export(ParcelFileDescriptor target, HistoryExporter.Format format) {
+        state.setValue(new State(0, 0, null, null));
+        repository.exportHistory(target, format, new Relay());
+    }
+
+    public void importCsv(ParcelFileDescriptor source) {
+        state.setValue(new State(0, 0, null, null));
+        repository.importHistory(source, HistoryImporter.DEFAULT_BATCH_SIZE, new Relay());
+    }
+
+    /** Forgets a finished transfer once its outcome was shown. */
+    void consume() {
+        state.setValue(null);
+    }
+
+    // Repository callbacks arrive on the main thread
+    private class Relay implements TransferCallback {
+        @Override
+        public void onProgress(long done, long total) {
+            state.setValue(new State(done, total, null, null));
+        }
+
+        @Override
+        public void onComplete(TransferResult result) {
+            state.setValue(new State(0, 0, result, null));
+        }
+
+        @Override
+        public void onError(Exception error) {
+            state.setValue(new State(0, 0, null, error));
+        }
+    }
+}
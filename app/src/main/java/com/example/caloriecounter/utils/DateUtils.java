@@ -1,21 +1,19 @@
 package com.example.caloriecounter.utils;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.Locale;
 
+/**
+ * Date helpers for the "yyyy-MM-dd" day keys used throughout the app, backed by
+ * {@link DayKeyCodec}. Safe to call from any thread.
+ */
 public class DateUtils {
 
-    private static final String DATE_FORMAT = "yyyy-MM-dd";
-    private static final SimpleDateFormat dateFormatter = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
-
     /**
      * Get today's date in yyyy-MM-dd format
      */
     public static String getTodayDate() {
-        return dateFormatter.format(new Date());
+        return DayKeyCodec.format(DayKeyCodec.today());
     }
 
     /**
@@ -26,9 +24,7 @@ public class DateUtils {
      * @return Formatted date string in yyyy-MM-dd format
      */
     public static String formatDate(int year, int month, int dayOfMonth) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(year, month, dayOfMonth);
-        return dateFormatter.format(calendar.getTime());
+        return DayKeyCodec.format(year, month, dayOfMonth);
     }
 
     /**
@@ -38,11 +34,8 @@ public class DateUtils {
      */
     public static boolean isFutureDate(String dateString) {
         try {
-            Date date = dateFormatter.parse(dateString);
-            Date today = dateFormatter.parse(getTodayDate());
-            return date != null && today != null && date.after(today);
-        } catch (ParseException e) {
-            e.printStackTrace();
+            return DayKeyCodec.parse(dateString) > DayKeyCodec.today();
+        } catch (IllegalArgumentException e) {
             return false;
         }
     }
@@ -50,15 +43,19 @@ public class DateUtils {
     /**
      * Parse a date string to Date object
      * @param dateString Date in yyyy-MM-dd format
-     * @return Date object or null if parsing fails
+     * @return Date object at local midnight or null if parsing fails
      */
     public static Date parseDate(String dateString) {
+        int packed;
         try {
-            return dateFormatter.parse(dateString);
-        } catch (ParseException e) {
-            e.printStackTrace();
+            packed = DayKeyCodec.toPackedDate(DayKeyCodec.parse(dateString));
+        } catch (IllegalArgumentException e) {
             return null;
         }
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(DayKeyCodec.yearOf(packed), DayKeyCodec.monthOf(packed), DayKeyCodec.dayOf(packed));
+        return calendar.getTime();
     }
 
     /**
@@ -67,7 +64,11 @@ public class DateUtils {
      * @return Formatted date string in yyyy-MM-dd format
      */
     public static String formatDate(Date date) {
-        return dateFormatter.format(date);
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return DayKeyCodec.format(calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH),
+                calendar.get(Calendar.DAY_OF_MONTH));
     }
 
     /**
@@ -76,8 +77,34 @@ public class DateUtils {
      * @return Formatted date string in yyyy-MM-dd format
      */
     public static String getDateWithOffset(int daysOffset) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.DAY_OF_YEAR, daysOffset);
-        return dateFormatter.format(calendar.getTime());
+        return DayKeyCodec.format(DayKeyCodec.today() + daysOffset);
+    }
+
+    /**
+     * Get today's date as an epoch day (days since 1970-01-01 in the local calendar)
+     */
+    public static int getTodayEpochDay() {
+        return DayKeyCodec.today();
+    }
+
+    /**
+     * Convert a date string to an epoch day
+     * @param dateString Date in yyyy-MM-dd format
+     * @return Days since 1970-01-01, matching the epochDay column of calorie_entries
+     * @throws IllegalArgumentException if the string is not a valid date
+     */
+    public static int toEpochDay(String dateString) {
+        return DayKeyCodec.parse(dateString);
+    }
+
+    /**
+     * Convert a calendar date to an epoch day using pure arithmetic
+     * @param year The year
+     * @param month The month (0-11, where 0 is January)
+     * @param dayOfMonth The day of the month
+     * @return Days since 1970-01-01
+     */
+    public static int toEpochDay(int year, int month, int dayOfMonth) {
+        return DayKeyCodec.toEpochDay(year, month, dayOfMonth);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,223 @@
+package com.example.caloriecounter.utils;
+
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Converts between calendar dates, epoch days (days since 1970-01-01) and the
+ * canonical "yyyy-MM-dd" day key using integer arithmetic only.
+ *
+ * Every method is safe to call from any thread. Formatting days between
+ * {@link #FIRST_CACHED_YEAR} and {@link #LAST_CACHED_YEAR} returns interned
+ * strings from a table filled one year at a time, so repeated calls do not
+ * allocate. Months are 0-based in the (year, month, day) methods, matching
+ * {@link Calendar}.
+ */
+public final class DayKeyCodec {
+
+    public static final int FIRST_CACHED_YEAR = 1970;
+    public static final int LAST_CACHED_YEAR = 2199;
+
+    private static final int DAYS_PER_400_YEARS = 146097;
+    private static final int DAYS_0000_TO_1970 = 719468;
+
+    private static final AtomicReferenceArray<String[]> YEAR_TABLES =
+            new AtomicReferenceArray<>(LAST_CACHED_YEAR - FIRST_CACHED_YEAR + 1);
+
+    private static volatile Today today = new Today(0, 0, 0);
+
+    private DayKeyCodec() {
+    }
+
+    /**
+     * Days since 1970-01-01 for a calendar date. Days outside the month roll
+     * over linearly, so (2024, 0, 32) is 2024-02-01.
+     */
+    public static int toEpochDay(int year, int month, int dayOfMonth) {
+        int m = month + 1;
+        int y = m <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Calendar date of an epoch day packed as year * 10000 + (month + 1) * 100 + day,
+     * for example 20240305. Unpack with {@link #yearOf}, {@link #monthOf} and
+     * {@link #dayOf}.
+     */
+    public static int toPackedDate(int epochDay) {
+        int z = epochDay + DAYS_0000_TO_1970;
+        int era = (z >= 0 ? z : z - DAYS_PER_400_YEARS + 1) / DAYS_PER_400_YEARS;
+        int dayOfEra = z - era * DAYS_PER_400_YEARS;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    public static int yearOf(int packedDate) {
+        return packedDate / 10000;
+    }
+
+    /** 0-based month of a packed date. */
+    public static int monthOf(int packedDate) {
+        return packedDate / 100 % 100 - 1;
+    }
+
+    public static int dayOf(int packedDate) {
+        return packedDate % 100;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 1:
+                return isLeapYear(year) ? 29 : 28;
+            case 3:
+            case 5:
+            case 8:
+            case 10:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    public static boolean isValid(int year, int month, int dayOfMonth) {
+        return month >= 0 && month < 12 && dayOfMonth >= 1 && dayOfMonth <= lengthOfMonth(year, month);
+    }
+
+    /**
+     * The "yyyy-MM-dd" key of an epoch day. Cached years return the same
+     * interned instance on every call.
+     */
+    public static String format(int epochDay) {
+        int packed = toPackedDate(epochDay);
+        int year = yearOf(packed);
+        if (year < FIRST_CACHED_YEAR || year > LAST_CACHED_YEAR) {
+            return build(packed);
+        }
+        int index = year - FIRST_CACHED_YEAR;
+        String[] table = YEAR_TABLES.get(index);
+        if (table == null) {
+            table = buildYear(year);
+            // Racing threads build equal interned tables, so losing the CAS is harmless
+            if (!YEAR_TABLES.compareAndSet(index, null, table)) {
+                table = YEAR_TABLES.get(index);
+            }
+        }
+        return table[epochDay - toEpochDay(year, 0, 1)];
+    }
+
+    public static String format(int year, int month, int dayOfMonth) {
+        return format(toEpochDay(year, month, dayOfMonth));
+    }
+
+    /**
+     * Parses a "yyyy-MM-dd" key. Digits are read with {@link Character#digit}
+     * so keys written by a localized SimpleDateFormat still parse.
+     * @throws IllegalArgumentException if the text is not a valid calendar date
+     */
+    public static int parse(CharSequence text) {
+        if (text == null || text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        int year = parseDigits(text, 0, 4);
+        int month = parseDigits(text, 5, 7) - 1;
+        int day = parseDigits(text, 8, 10);
+        if (!isValid(year, month, day)) {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Today's epoch day in the default time zone. The result is cached until the
+     * next local midnight; a clock change outside the cached day recomputes it.
+     */
+    public static int today() {
+        long now = System.currentTimeMillis();
+        Today cached = today;
+        if (now >= cached.startMillis && now < cached.endMillis) {
+            return cached.epochDay;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        int epochDay = toEpochDay(calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH),
+                calendar.get(Calendar.DAY_OF_MONTH));
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long start = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        today = new Today(epochDay, start, calendar.getTimeInMillis());
+        return epochDay;
+    }
+
+    /** Forgets the cached day; the day-close job calls it after every date, time or time zone change. */
+    public static void invalidateToday() {
+        today = new Today(0, 0, 0);
+    }
+
+    private static String[] buildYear(int year) {
+        int first = toEpochDay(year, 0, 1);
+        String[] table = new String[isLeapYear(year) ? 366 : 365];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = build(toPackedDate(first + i)).intern();
+        }
+        return table;
+    }
+
+    private static String build(int packed) {
+        int year = yearOf(packed);
+        int month = monthOf(packed) + 1;
+        int day = dayOf(packed);
+        char[] chars = new char[10];
+        chars[0] = (char) ('0' + year / 1000 % 10);
+        chars[1] = (char) ('0' + year / 100 % 10);
+        chars[2] = (char) ('0' + year / 10 % 10);
+        chars[3] = (char) ('0' + year % 10);
+        chars[4] = '-';
+        chars[5] = (char) ('0' + month / 10);
+        chars[6] = (char) ('0' + month % 10);
+        chars[7] = '-';
+        chars[8] = (char) ('0' + day / 10);
+        chars[9] = (char) ('0' + day % 10);
+        return new String(chars);
+    }
+
+    private static int parseDigits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid date: " + text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static final class Today {
+        final int epochDay;
+        final long startMillis;
+        final long endMillis;
+
+        Today(int epochDay, long startMillis, long endMillis) {
+            this.epochDay = epochDay;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.caloriecounter.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-screen frame-duration recorder fed by the window's {@link FrameMetrics}.
+ * While a tracked screen is resumed the total duration of every frame the
+ * window actually renders is added to a 1 ms histogram, from which
+ * percentiles are read back; idle vsyncs are not frames and cost nothing.
+ * Off unless {@link #setEnabled enabled}, which only debuggable builds do.
+ * Main thread only.
+ */
+public final class FrameStats implements Window.OnFrameMetricsAvailableListener {
+
+    private static final String TAG = "FrameStats";
+    // Last bucket collects every frame of MAX_BUCKET_MS or longer
+    private static final int MAX_BUCKET_MS = 250;
+    private static final long JANK_NANOS = 17_000_000L;
+    private static final long STALL_NANOS = 250_000_000L;
+    private static final Map<String, FrameStats> SCREENS = new LinkedHashMap<>();
+    private static boolean enabled;
+
+    private final String screen;
+    private final long[] histogram = new long[MAX_BUCKET_MS + 1];
+    private long frames;
+    private long jankFrames;
+    private long stalls;
+    private long maxNanos;
+    private Window window;
+    private Handler handler;
+
+    private FrameStats(String screen) {
+        this.screen = screen;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        FrameStats.enabled = enabled;
+    }
+
+    public static FrameStats forScreen(@NonNull String screen) {
+        FrameStats stats = SCREENS.get(screen);
+        if (stats == null) {
+            stats = new FrameStats(screen);
+            SCREENS.put(screen, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Records the window's frames for the screen whenever the owner is
+     * resumed. Does nothing while frame stats are disabled.
+     */
+    public static void track(@NonNull LifecycleOwner owner, @NonNull Window window, @NonNull String screen) {
+        if (!enabled) {
+            return;
+        }
+        FrameStats stats = forScreen(screen);
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onResume(@NonNull LifecycleOwner owner) {
+                stats.start(window);
+            }
+
+            @Override
+            public void onPause(@NonNull LifecycleOwner owner) {
+                stats.stop();
+            }
+        });
+    }
+
+    public void start(@NonNull Window window) {
+        if (this.window == null) {
+            if (handler == null) {
+                handler = new Handler(Looper.getMainLooper());
+            }
+            this.window = window;
+            window.addOnFrameMetricsAvailableListener(this, handler);
+        }
+    }
+
+    public void stop() {
+        if (window != null) {
+            window.removeOnFrameMetricsAvailableListener(this);
+            window = null;
+        }
+    }
+
+    @Override
+    public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+        // The first frame of a window includes its layout and is not a steady-state frame
+        if (this.window == null || frameMetrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) {
+            return;
+        }
+        record(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+    }
+
+    void record(long frameNanos) {
+        frames++;
+        histogram[(int) Math.min(MAX_BUCKET_MS, frameNanos / 1_000_000L)]++;
+        if (frameNanos > JANK_NANOS) {
+            jankFrames++;
+        }
+        if (frameNanos > STALL_NANOS) {
+            stalls++;
+        }
+        maxNanos = Math.max(maxNanos, frameNanos);
+    }
+
+    /** Upper bound in ms of the bucket holding the given percentile (0-100). */
+    public int percentileMillis(double percentile) {
+        if (frames == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(frames * percentile / 100.0);
+        long seen = 0;
+        for (int ms = 0; ms < histogram.length; ms++) {
+            seen += histogram[ms];
+            if (seen >= rank) {
+                return ms + 1;
+            }
+        }
+        return MAX_BUCKET_MS;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getJankFrames() {
+        return jankFrames;
+    }
+
+    public long getStalls() {
+        return stalls;
+    }
+
+    public void reset() {
+        Arrays.fill(histogram, 0);
+        frames = 0;
+        jankFrames = 0;
+        stalls = 0;
+        maxNanos = 0;
+    }
+
+    public String describe() {
+        return String.format(Locale.US,
+                "%s: %d frames, p50 %d ms, p90 %d ms, p95 %d ms, p99 %d ms, max %.1f ms, %d janky, %d stalls",
+                screen, frames, percentileMillis(50), percentileMillis(90), percentileMillis(95),
+                percentileMillis(99), maxNanos / 1e6, jankFrames, stalls);
+    }
+
+    public static String describeAll() {
+        if (SCREENS.isEmpty()) {
+            return "No frames recorded";
+        }
+        StringBuilder out = new StringBuilder();
+        for (FrameStats stats : SCREENS.values()) {
+            if (out.length() > 0) {
+                out.append('\n');
+            }
+            out.append(stats.describe());
+        }
+        return out.toString();
+    }
+
+    public static void resetAll() {
+        for (FrameStats stats : SCREENS.values()) {
+            stats.reset();
+        }
+    }
+
+    /** Writes every screen's summary to logcat under the "FrameStats" tag. */
+    public static void dump() {
+        for (FrameStats stats : SCREENS.values()) {
+            Log.i(TAG, stats.describe());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.caloriecounter.utils;
+
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Named {@link Trace} sections for systrace/Perfetto captures. Sections must be
+ * closed on the thread that opened them; prefer try/finally around
+ * {@link #begin}/{@link #end}.
+ */
+public final class PerfTrace {
+
+    private PerfTrace() {
+    }
+
+    public static void begin(@NonNull String section) {
+        Trace.beginSection(section);
+    }
+
+    public static void end() {
+        Trace.endSection();
+    }
+
+    /** An executor that runs every task inside its own section. */
+    public static Executor wrap(@NonNull String section, @NonNull Executor executor) {
+        return command -> executor.execute(() -> {
+            begin(section);
+            try {
+                command.run();
+            } finally {
+                end();
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.caloriecounter.data.database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FoodFtsTest {
+
+    @Test
+    public void matchQuery_prefixesEveryWord() {
+        assertEquals("gre* yog*", FoodFts.matchQuery("gre yog"));
+        assertEquals("coffee*", FoodFts.matchQuery("  Coffee "));
+        assertEquals("café*", FoodFts.matchQuery("café"));
+    }
+
+    @Test
+    public void matchQuery_dropsOperators() {
+        assertEquals("a* or* b* c*", FoodFts.matchQuery("a OR\"b\" -c*"));
+        assertEquals("x* near* 2*", FoodFts.matchQuery("x NEAR/2"));
+        assertNull(FoodFts.matchQuery("  \"*-() "));
+        assertNull(FoodFts.matchQuery(null));
+    }
+}
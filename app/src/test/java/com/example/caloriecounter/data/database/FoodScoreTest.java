@@ -0,0 +1,45 @@
+package com.example.caloriecounter.data.database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FoodScoreTest {
+    private static final int TODAY = 20_000;
+
+    @Test
+    public void addUses_countsUsesOfToday() {
+        Double score = null;
+        for (int i = 0; i < 5; i++) {
+            score = FoodEntity.addUses(score, TODAY, 1);
+        }
+        assertEquals(5, FoodEntity.decayedUses(score, TODAY), 1e-9);
+        assertEquals(FoodEntity.addUses(null, TODAY, 5), score, 1e-9);
+        assertEquals(0, FoodEntity.decayedUses(null, TODAY), 0);
+    }
+
+    @Test
+    public void addUses_halvesPerHalfLife() {
+        double score = FoodEntity.addUses(null, TODAY - (int) FoodEntity.SCORE_HALF_LIFE_DAYS, 4);
+        assertEquals(2, FoodEntity.decayedUses(score, TODAY), 1e-9);
+        assertEquals(1, FoodEntity.decayedUses(score, TODAY + (int) FoodEntity.SCORE_HALF_LIFE_DAYS), 1e-9);
+    }
+
+    @Test
+    public void addUses_ignoresOrder() {
+        double forward = FoodEntity.addUses(FoodEntity.addUses(null, TODAY - 300, 2), TODAY, 1);
+        double backward = FoodEntity.addUses(FoodEntity.addUses(null, TODAY, 1), TODAY - 300, 2);
+        assertEquals(forward, backward, 1e-9);
+    }
+
+    @Test
+    public void score_prefersRecentOverOldHabits() {
+        // Ten uses a year ago lose to two this week
+        double old = FoodEntity.addUses(null, TODAY - 365, 10);
+        double recent = FoodEntity.addUses(FoodEntity.addUses(null, TODAY - 3, 1), TODAY, 1);
+        assertTrue(recent > old);
+        // Far past and far future days stay finite
+        assertTrue(Double.isFinite(FoodEntity.addUses(old, 1_000_000, 1)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.caloriecounter.data.database;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class QueryMetricsTest {
+
+    private final QueryMetrics metrics = QueryMetrics.getInstance();
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+
+    @Before
+    public void setUp() {
+        metrics.setEnabled(true);
+        metrics.setSlowThresholdMillis(Long.MAX_VALUE / 1_000_000L);
+        metrics.reset();
+        Context context = ApplicationProvider.getApplicationContext();
+        // A direct query executor runs LiveData refreshes inline on the test thread
+        db = metrics.install(Room.inMemoryDatabaseBuilder(context, AppDatabase.class), Runnable::run)
+                .addCallback(AppDatabase.CREATE_TRIGGERS_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+        dao = db.calorieEntryDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        metrics.reset();
+        metrics.setEnabled(false);
+    }
+
+    @Test
+    public void time_recordsLatencyPerDaoMethod() {
+        for (int i = 0; i < 3; i++) {
+            long timestamp = i;
+            metrics.time("CalorieEntryDao.insert", () -> dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, timestamp)));
+        }
+        int day = 19787; // 2024-03-05
+        List<CalorieEntryEntity> entries = metrics.time("CalorieEntryDao.getEntriesForDateSync", () -> dao.getEntriesForDateSync(day));
+
+        assertEquals(3, entries.size());
+        QueryMetrics.LatencyHistogram inserts = metrics.getMethodStats("CalorieEntryDao.insert");
+        QueryMetrics.LatencyHistogram reads = metrics.getMethodStats("CalorieEntryDao.getEntriesForDateSync");
+        assertNotNull(inserts);
+        assertNotNull(reads);
+        assertEquals(3, inserts.getCount());
+        assertEquals(1, reads.getCount());
+        assertTrue(reads.getMaxNanos() > 0);
+        assertTrue(reads.percentileMicros(95) >= reads.percentileMicros(50));
+        assertTrue(metrics.getTotalStatements() >= 4);
+        assertTrue(metrics.getSlowQueries().isEmpty());
+    }
+
+    @Test
+    public void slowCalls_keepStatementAndBindArgs() {
+        metrics.setSlowThresholdMillis(0);
+
+        metrics.time("CalorieEntryDao.getEntriesForDateSync", () -> dao.getEntriesForDateSync(19787));
+
+        List<QueryMetrics.SlowQuery> slow = metrics.getSlowQueries();
+        assertEquals(1, slow.size());
+        QueryMetrics.SlowQuery query = slow.get(0);
+        assertEquals("CalorieEntryDao.getEntriesForDateSync", query.method);
+        assertNotNull(query.lastSql);
+        assertTrue(query.lastSql.contains("FROM calorie_entries"));
+        assertNotNull(query.lastArgs);
+        assertEquals(1, query.lastArgs.size());
+        assertEquals(1, metrics.getStatementCount(query.lastSql));
+    }
+
+    @Test
+    public void liveDataQueries_getStatementHistograms() {
+        dao.insert(new CalorieEntryEntity("2024-03-05", "Apple", 1, 95, 1));
+        LiveData<List<DailyTotal>> totals = dao.getAllDailyTotals();
+        Observer<List<DailyTotal>> observer = value -> { };
+        totals.observeForever(observer);
+        totals.removeObserver(observer);
+
+        String timed = null;
+        for (String sql : metrics.getTimedQueries()) {
+            if (sql.contains("FROM daily_totals")) {
+                timed = sql;
+            }
+        }
+        assertNotNull(timed);
+        assertTrue(metrics.getQueryStats(timed).getCount() >= 1);
+        assertTrue(metrics.describe().contains("FROM daily_totals"));
+    }
+
+    @Test
+    public void disabledMetrics_recordNothing() {
+        metrics.setEnabled(false);
+        metrics.reset();
+
+        metrics.time("CalorieEntryDao.getEntryCount", () -> dao.getEntryCount());
+
+        assertEquals(0, metrics.getTotalStatements());
+        assertEquals(null, metrics.getMethodStats("CalorieEntryDao.getEntryCount"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.caloriecounter.data.transfer;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.caloriecounter.data.database.AppDatabase;
+import com.example.caloriecounter.data.database.CalorieEntryDao;
+import com.example.caloriecounter.data.database.CalorieEntryEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class HistoryImporterTest {
+
+    private AppDatabase db;
+    private CalorieEntryDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        dao = db.calorieEntryDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void strayQuote_staysInItsField() throws IOException {
+        TransferResult result = importCsv(HistoryExporter.CSV_HEADER + "\n"
+                + "2024-03-05,5\" pizza,1,300,1\n"
+                + "2024-03-05,Apple,1,95,2\n");
+
+        assertEquals(2, result.getRows());
+        assertEquals(0, result.getRejectedRows());
+        List<CalorieEntryEntity> entries = dao.getEntriesForDateSync(19787); // 2024-03-05
+        assertEquals("5\" pizza", entries.get(0).getName());
+        assertEquals("Apple", entries.get(1).getName());
+    }
+
+    @Test
+    public void quotedFields_mayContinueOnTheNextLine() throws IOException {
+        TransferResult result = importCsv("2024-03-05,\"Apple, \"\"red\"\"\nsliced\",1,95,1\n"
+                + "2024-03-05,Pear,1,60,2\n");
+
+        assertEquals(2, result.getRows());
+        assertEquals("Apple, \"red\"\nsliced", dao.getEntriesForDateSync(19787).get(0).getName());
+    }
+
+    @Test
+    public void unterminatedQuote_rejectsOnlyItsLine() throws IOException {
+        TransferResult result = importCsv("2024-03-05,\"Apple,1,95,1\n"
+                + "2024-03-05,Pear,1,60,2\n"
+                + "2024-03-06,Banana,1,105,3\n");
+
+        assertEquals(2, result.getRows());
+        assertEquals(Arrays.asList(1L), result.getRejectedLines());
+        assertEquals("Pear", dao.getEntriesForDateSync(19787).get(0).getName());
+    }
+
+    @Test
+    public void localizedDigits_storeTheCanonicalDate() throws IOException {
+        importCsv("٢٠٢٤-٠٣-٠٥,Apple,1,95,1\n");
+
+        CalorieEntryEntity entry = dao.getEntriesForDateSync(19787).get(0);
+        assertEquals("2024-03-05", entry.getDate());
+    }
+
+    private TransferResult importCsv(String csv) throws IOException {
+        return new HistoryImporter(dao, 2).importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), csv.length(), null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.caloriecounter.utils;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DayKeyCodecTest {
+
+    // 1900-01-01 to 2300-12-31 spans both cached and uncached years
+    private static final int FIRST_DAY = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int LAST_DAY = (int) LocalDate.of(2300, 12, 31).toEpochDay();
+
+    @Test
+    public void matchesJavaTimeForEveryDay() {
+        for (int day = FIRST_DAY; day <= LAST_DAY; day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            String key = date.toString();
+            assertEquals(key, DayKeyCodec.format(day));
+            assertEquals(day, DayKeyCodec.parse(key));
+            assertEquals(day, DayKeyCodec.toEpochDay(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth()));
+            int packed = DayKeyCodec.toPackedDate(day);
+            assertEquals(date.getYear(), DayKeyCodec.yearOf(packed));
+            assertEquals(date.getMonthValue() - 1, DayKeyCodec.monthOf(packed));
+            assertEquals(date.getDayOfMonth(), DayKeyCodec.dayOf(packed));
+        }
+    }
+
+    @Test
+    public void cachedKeysAreShared() {
+        int day = (int) LocalDate.of(2024, 2, 29).toEpochDay();
+        assertSame(DayKeyCodec.format(day), DayKeyCodec.format(day));
+        assertSame(DayKeyCodec.format(day), DayKeyCodec.format(2024, 1, 29));
+    }
+
+    @Test
+    public void rejectsInvalidKeys() {
+        String[] invalid = {"2023-02-29", "2024-13-01", "2024-00-10", "2024-04-31", "2024-1-01", "20240101", "abcd-ef-gh", ""};
+        for (String key : invalid) {
+            try {
+                DayKeyCodec.parse(key);
+                fail("Accepted " + key);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+        assertTrue(DayKeyCodec.isValid(2000, 1, 29));
+        assertFalse(DayKeyCodec.isValid(1900, 1, 29));
+    }
+
+    @Test
+    public void dateUtilsDelegatesToCodec() {
+        int today = DayKeyCodec.today();
+        assertEquals(LocalDate.now().toEpochDay(), today);
+        assertEquals(DayKeyCodec.format(today), DateUtils.getTodayDate());
+        assertEquals(DayKeyCodec.format(today - 3), DateUtils.getDateWithOffset(-3));
+        assertTrue(DateUtils.isFutureDate(DateUtils.getDateWithOffset(1)));
+        assertFalse(DateUtils.isFutureDate(DateUtils.getTodayDate()));
+        assertFalse(DateUtils.isFutureDate("not a date"));
+        assertEquals(DateUtils.getTodayDate(), DateUtils.formatDate(DateUtils.parseDate(DateUtils.getTodayDate())));
+    }
+
+    @Test
+    public void concurrentFormatAndParseAgree() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                Callable<Integer> task = () -> {
+                    start.await();
+                    int checked = 0;
+                    // Every thread walks the same days in a different order so year tables race
+                    for (int i = 0; i <= LAST_DAY - FIRST_DAY; i++) {
+                        int day = FIRST_DAY + (i * 7 + offset * 9973) % (LAST_DAY - FIRST_DAY + 1);
+                        String key = DayKeyCodec.format(day);
+                        if (!key.equals(LocalDate.ofEpochDay(day).toString()) || DayKeyCodec.parse(key) != day) {
+                            throw new AssertionError("Mismatch at " + day + ": " + key);
+                        }
+                        checked++;
+                    }
+                    return checked;
+                };
+                results.add(pool.submit(task));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(LAST_DAY - FIRST_DAY + 1, (int) result.get(2, TimeUnit.MINUTES));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}